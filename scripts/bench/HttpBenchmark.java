@@ -0,0 +1,170 @@
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP benchmark for a running RetailNexus instance. Each client logs in with its own session and
+ * repeatedly hits one endpoint; prints requests per second and latency percentiles.
+ *
+ * <pre>
+ * java scripts/bench/HttpBenchmark.java &lt;baseUrl&gt; &lt;dashboard|checkout&gt; [clients] [seconds] [warmupSeconds]
+ * </pre>
+ *
+ * {@code checkout} posts a one-line cart to /billing/complete (creates real sales); {@code dashboard} GETs /dashboard.
+ * Runs on Java 17+ without compilation (single-file source launch).
+ */
+public class HttpBenchmark {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: HttpBenchmark <baseUrl> <dashboard|checkout> [clients] [seconds] [warmupSeconds]");
+            System.exit(2);
+        }
+        String baseUrl = args[0].replaceAll("/$", "");
+        String scenario = args[1];
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        int warmup = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+
+        List<Client> sessions = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            sessions.add(new Client(baseUrl, scenario));
+        }
+        run(sessions, warmup);
+        Result result = run(sessions, seconds);
+
+        long[] all = result.latenciesMicros;
+        Arrays.sort(all);
+        System.out.printf("scenario=%s clients=%d seconds=%d requests=%d errors=%d rps=%.1f p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms%n",
+            scenario, clients, seconds, all.length, result.errors, all.length / (double) seconds,
+            percentile(all, 50), percentile(all, 95), percentile(all, 99), all.length > 0 ? all[all.length - 1] / 1000.0 : 0);
+    }
+
+    private static Result run(List<Client> sessions, int seconds) throws Exception {
+        long end = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        ExecutorService pool = Executors.newFixedThreadPool(sessions.size());
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (Client client : sessions) {
+                futures.add(pool.submit(() -> client.loop(end)));
+            }
+            Result total = new Result(new long[0], 0);
+            for (Future<Result> f : futures) {
+                total = total.merge(f.get());
+            }
+            return total;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int i = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(i, sorted.length - 1))] / 1000.0;
+    }
+
+    private record Result(long[] latenciesMicros, long errors) {
+        Result merge(Result other) {
+            long[] merged = Arrays.copyOf(latenciesMicros, latenciesMicros.length + other.latenciesMicros.length);
+            System.arraycopy(other.latenciesMicros, 0, merged, latenciesMicros.length, other.latenciesMicros.length);
+            return new Result(merged, errors + other.errors);
+        }
+    }
+
+    private static final class Client {
+        private final String baseUrl;
+        private final String scenario;
+        private final HttpClient http;
+        private String csrf;
+
+        Client(String baseUrl, String scenario) throws Exception {
+            this.baseUrl = baseUrl;
+            this.scenario = scenario;
+            this.http = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+            String loginToken = csrfFrom(get("/login"));
+            HttpResponse<String> login = post("/login", "username=admin&password=admin123&_csrf=" + encode(loginToken));
+            if (login.statusCode() != 302 || login.headers().firstValue("Location").orElse("").contains("error")) {
+                throw new IllegalStateException("Login failed: " + login.statusCode());
+            }
+            this.csrf = csrfFrom(get("/billing"));
+        }
+
+        Result loop(long endNanos) {
+            long[] latencies = new long[1024];
+            int count = 0;
+            long errors = 0;
+            while (System.nanoTime() < endNanos) {
+                long start = System.nanoTime();
+                boolean ok;
+                try {
+                    ok = "checkout".equals(scenario) ? checkout() : dashboard();
+                } catch (Exception e) {
+                    ok = false;
+                }
+                long micros = (System.nanoTime() - start) / 1000;
+                if (!ok) {
+                    errors++;
+                    continue;
+                }
+                if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                latencies[count++] = micros;
+            }
+            return new Result(Arrays.copyOf(latencies, count), errors);
+        }
+
+        private boolean dashboard() throws Exception {
+            return get("/dashboard").statusCode() == 200;
+        }
+
+        private boolean checkout() throws Exception {
+            HttpResponse<String> response = post("/billing/complete",
+                "items=" + encode("1:1::") + "&paymentMethod=CASH&_csrf=" + encode(csrf));
+            return response.statusCode() == 302
+                && response.headers().firstValue("Location").orElse("").contains("/billing/invoice/");
+        }
+
+        private HttpResponse<String> get(String path) throws Exception {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60)).GET().build();
+            return http.send(request, HttpResponse.BodyHandlers.ofString());
+        }
+
+        private HttpResponse<String> post(String path, String form) throws Exception {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+            return http.send(request, HttpResponse.BodyHandlers.ofString());
+        }
+
+        private static String csrfFrom(HttpResponse<String> response) {
+            Matcher m = CSRF.matcher(response.body());
+            if (!m.find()) throw new IllegalStateException("No CSRF token in response (" + response.statusCode() + ")");
+            return m.group(1);
+        }
+
+        private static String encode(String value) {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8);
+        }
+    }
+}
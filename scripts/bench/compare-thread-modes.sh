@@ -0,0 +1,35 @@
+#!/bin/sh
+# Compare platform-thread and virtual-thread request handling for /billing/complete and /dashboard.
+# Needs a Java 21 JDK on PATH for the virtual-thread run. Usage: scripts/bench/compare-thread-modes.sh [clients] [seconds]
+set -e
+cd "$(dirname "$0")/../.."
+
+CLIENTS=${1:-64}
+SECONDS_PER_RUN=${2:-30}
+PORT=18090
+JAR=target/retailnexus-1.0.0.jar
+
+mvn -B -q -Pjava21 -DskipTests package
+
+run_mode() {
+    mode=$1
+    profiles=render
+    [ "$mode" = virtual ] && profiles=render,virtual-threads
+    java -Djdk.tracePinnedThreads=short -jar "$JAR" --server.port=$PORT --spring.profiles.active=$profiles \
+        > "target/bench-$mode.log" 2>&1 &
+    pid=$!
+    until grep -q "Started RetailNexusApplication" "target/bench-$mode.log"; do
+        kill -0 $pid 2>/dev/null || { echo "app failed to start, see target/bench-$mode.log"; exit 1; }
+        sleep 1
+    done
+    for scenario in checkout dashboard; do
+        printf '%s ' "$mode"
+        java scripts/bench/HttpBenchmark.java "http://localhost:$PORT" $scenario "$CLIENTS" "$SECONDS_PER_RUN" 10
+    done
+    kill $pid
+    wait $pid 2>/dev/null || true
+    echo "$mode: $(grep -c 'reason:MONITOR\|<== monitors' "target/bench-$mode.log" || true) pinned-thread stack traces (see target/bench-$mode.log)"
+}
+
+run_mode platform
+run_mode virtual
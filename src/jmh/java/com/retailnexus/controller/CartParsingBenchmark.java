@@ -0,0 +1,45 @@
+package com.retailnexus.controller;
+
+import com.retailnexus.service.SaleService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/** {@link BillingController#parseCart} on the till form's {@code id:qty:price:gst;...} cart string. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartParsingBenchmark {
+
+    @Param({ "5", "50" })
+    int lines;
+
+    private String cart;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        StringJoiner joiner = new StringJoiner(";");
+        for (int i = 0; i < lines; i++) {
+            // Mix of plain lines, loose (kg) quantities and price/GST overrides, as the billing page sends them
+            String qty = i % 3 == 0 ? BigDecimal.valueOf(250 + random.nextInt(3000), 3).toPlainString()
+                : String.valueOf(1 + random.nextInt(12));
+            String price = i % 4 == 0 ? BigDecimal.valueOf(1000 + random.nextInt(50_000), 2).toPlainString() : "";
+            String gst = i % 5 == 0 ? "12" : "";
+            joiner.add((1 + random.nextInt(5000)) + ":" + qty + ":" + price + ":" + gst);
+        }
+        cart = joiner.toString();
+    }
+
+    @Benchmark
+    public List<SaleService.CheckoutLine> parseCart() {
+        return BillingController.parseCart(cart);
+    }
+}
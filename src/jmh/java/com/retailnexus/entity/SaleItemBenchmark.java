@@ -0,0 +1,35 @@
+package com.retailnexus.entity;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/** {@link SaleItem#getQuantityWithUnit}, rendered once per invoice line and report row. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaleItemBenchmark {
+
+    @Param({ "PIECES", "KG" })
+    Product.Unit unit;
+
+    private SaleItem item;
+
+    @Setup
+    public void setUp() {
+        Product product = new Product();
+        product.setUnit(unit);
+        item = new SaleItem();
+        item.setProduct(product);
+        item.setQuantity(unit == Product.Unit.PIECES ? new BigDecimal("3.000") : new BigDecimal("0.750"));
+    }
+
+    @Benchmark
+    public String quantityWithUnit() {
+        return item.getQuantityWithUnit();
+    }
+}
@@ -0,0 +1,100 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-line pricing ({@link Pricing#line}) and batch planning ({@link BatchAllocator#planLine}) of
+ * {@code createSale}, without the database: a cart of {@code lines} lines, each spread over a few batches.
+ * Prices are converted to fixed point once in setup, as a cart's product fields are read once per line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckoutMathBenchmark {
+
+    private static final BigDecimal[] GST_RATES = {
+        BigDecimal.ZERO, new BigDecimal("5"), new BigDecimal("12"), new BigDecimal("18") };
+    private static final BigDecimal MARKUP = new BigDecimal("1.25");
+
+    @Param({ "5", "50" })
+    int lines;
+
+    private final List<BigDecimal> quantities = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+    private long[] prices;
+    private long[] gstRates;
+    private long[] costs;
+    private final List<BatchAllocator.Slot[]> batches = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < lines; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setUnit(i % 3 == 0 ? Product.Unit.KG : Product.Unit.PIECES);
+            product.setCostPrice(BigDecimal.valueOf(1000 + random.nextInt(50_000), 2));
+            product.setSellingPrice(product.getCostPrice().multiply(MARKUP).setScale(2, RoundingMode.HALF_UP));
+            product.setGstPercent(GST_RATES[i % GST_RATES.length]);
+            products.add(product);
+            quantities.add(product.getUnit() == Product.Unit.KG
+                ? BigDecimal.valueOf(250 + random.nextInt(3000), 3)
+                : BigDecimal.valueOf(1 + random.nextInt(12)));
+            BatchAllocator.Slot[] fefo = new BatchAllocator.Slot[4];
+            for (int b = 0; b < fefo.length; b++) {
+                fefo[b] = new BatchAllocator.Slot(i * 10L + b, "B" + b, LocalDate.of(2030, 1, 1).plusDays(b),
+                    b == 0 ? random.nextInt(3) : random.nextInt(20));
+            }
+            batches.add(fefo);
+        }
+        prices = products.stream().mapToLong(p -> Pricing.paise(p.getSellingPrice())).toArray();
+        gstRates = products.stream().mapToLong(p -> Pricing.hundredths(p.getGstPercent())).toArray();
+        costs = products.stream().mapToLong(p -> Pricing.paise(p.getCostPrice())).toArray();
+    }
+
+    @Benchmark
+    public void priceLines(Blackhole bh) {
+        for (int i = 0; i < lines; i++) {
+            bh.consume(Pricing.line(prices[i], gstRates[i], Pricing.milli(quantities.get(i)), costs[i]));
+        }
+    }
+
+    @Benchmark
+    public void allocateLines(Blackhole bh) {
+        for (int i = 0; i < lines; i++) {
+            BatchAllocator.Slot[] fefo = batches.get(i);
+            bh.consume(BatchAllocator.planLine(products.get(i), quantities.get(i), fefo, BatchAllocator.quantities(fefo)));
+        }
+    }
+
+    /** Allocation, pricing of every take and the sale totals, as {@code createSale} does per cart. */
+    @Benchmark
+    public BigDecimal priceCart() {
+        Pricing.Totals totals = new Pricing.Totals();
+        for (int i = 0; i < lines; i++) {
+            BatchAllocator.Slot[] fefo = batches.get(i);
+            BatchAllocator.LinePlan plan = BatchAllocator.planLine(products.get(i), quantities.get(i), fefo,
+                BatchAllocator.quantities(fefo));
+            for (BatchAllocator.Take take : plan.takes()) {
+                totals.add(Pricing.line(prices[i], gstRates[i], Pricing.milli(take.quantity()), costs[i]));
+            }
+            if (plan.shortfall().signum() > 0) {
+                totals.add(Pricing.line(prices[i], gstRates[i], Pricing.milli(plan.shortfall()), costs[i]));
+            }
+        }
+        return Pricing.money(totals.total());
+    }
+}
@@ -0,0 +1,99 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.Product;
+import com.retailnexus.repository.BatchRepository;
+import com.retailnexus.repository.CategorySalesRow;
+import com.retailnexus.repository.MonthlySalesRow;
+import com.retailnexus.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The Java side of the dashboard widgets in {@link DashboardService}, over in-memory fixtures: repositories and
+ * rollup queries are Mockito stubs returning a catalog of {@code products} products, so only the aggregation
+ * (stock lookups, set membership, month/category maps) is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DashboardAggregationBenchmark {
+
+    @Param({ "1000", "10000" })
+    int products;
+
+    private DashboardService dashboardService;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Product> catalog = new ArrayList<>(products);
+        List<Object[]> stockRows = new ArrayList<>(products);
+        Set<Long> sold = new HashSet<>();
+        for (long id = 1; id <= products; id++) {
+            Product product = new Product();
+            product.setId(id);
+            product.setCategory("Category " + (id % 20));
+            catalog.add(product);
+            stockRows.add(new Object[] { id, (long) random.nextInt(40) });
+            if (random.nextInt(10) < 7) sold.add(id);
+        }
+        List<MonthlySalesRow> months = new ArrayList<>();
+        YearMonth month = YearMonth.now().minusMonths(5);
+        for (int i = 0; i < 6; i++, month = month.plusMonths(1)) {
+            months.add(new MonthlySalesRow(month.getYear(), month.getMonthValue(), BigDecimal.valueOf(random.nextInt(10_000_000), 2)));
+        }
+        List<CategorySalesRow> categories = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            categories.add(new CategorySalesRow("Category " + i, BigDecimal.valueOf(random.nextInt(1_000_000), 2),
+                BigDecimal.valueOf(random.nextInt(200_000), 2)));
+        }
+
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAll()).thenReturn(catalog);
+        StockSnapshotService stockSnapshotService = mock(StockSnapshotService.class);
+        when(stockSnapshotService.availableStock()).thenReturn(StockSnapshot.fromRows(stockRows));
+        SalesRollupService salesRollupService = mock(SalesRollupService.class);
+        when(salesRollupService.productIdsSoldSince(any(LocalDate.class))).thenReturn(sold);
+        when(salesRollupService.revenueByMonthSince(any(LocalDate.class))).thenReturn(months);
+        when(salesRollupService.totalsByCategorySince(any(LocalDate.class))).thenReturn(categories);
+        dashboardService = new DashboardService(productRepository, mock(BatchRepository.class), stockSnapshotService,
+            salesRollupService);
+    }
+
+    @Benchmark
+    public long lowStockCount() {
+        return dashboardService.lowStockCount();
+    }
+
+    @Benchmark
+    public long deadStockCount() {
+        return dashboardService.deadStockCount();
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> monthlySalesTrend() {
+        return dashboardService.monthlySalesTrend(6);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> categoryWiseSales() {
+        return dashboardService.categoryWiseSales(1);
+    }
+}
@@ -0,0 +1,82 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.Product;
+import com.retailnexus.entity.Sale;
+import com.retailnexus.repository.SaleSummaryRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link PdfReportService} rendering of {@code rows} report rows to a discarding stream, with the report data
+ * served from memory by a stubbed {@link ReportService}. Above {@link PdfReportService#ROWS_PER_PART} rows this
+ * includes the part-by-part render and merge.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfReportBenchmark {
+
+    @Param({ "100", "2500" })
+    int rows;
+
+    private PdfReportService pdfReportService;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<ReportService.ProductStockDto> stock = new ArrayList<>(rows);
+        List<SaleSummaryRow> sales = new ArrayList<>(rows);
+        LocalDateTime opening = LocalDate.now().atTime(9, 0);
+        for (int i = 1; i <= rows; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setName("Product " + i);
+            product.setCategory("Category " + (i % 20));
+            stock.add(new ReportService.ProductStockDto(product, random.nextInt(10)));
+            BigDecimal total = BigDecimal.valueOf(5000 + random.nextInt(500_000), 2);
+            sales.add(new SaleSummaryRow((long) i, opening.plusSeconds(i * 17L), Sale.PaymentMethod.CASH, "cashier",
+                total, total.divide(BigDecimal.TEN)));
+        }
+
+        ReportService reportService = mock(ReportService.class);
+        when(reportService.lowStockReport(anyInt())).thenReturn(stock);
+        when(reportService.totalBetween(any(), any())).thenReturn(BigDecimal.ONE);
+        // Keyset pages as the real query returns them: rows after the given one (ids are 1..rows, in order)
+        when(reportService.salesPage(any(), any(), any(), anyInt())).thenAnswer(call -> {
+            SaleSummaryRow after = call.getArgument(2);
+            int from = after != null ? after.id().intValue() : 0;
+            int size = call.getArgument(3);
+            return sales.subList(from, Math.min(sales.size(), from + size));
+        });
+        pdfReportService = new PdfReportService(reportService, new SimpleMeterRegistry(), "");
+        pdfReportService.warmUp();
+    }
+
+    @Benchmark
+    public void lowStockReport() throws IOException {
+        pdfReportService.writeLowStockReport(10, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void dailySalesReport() throws IOException {
+        pdfReportService.writeDailySalesReport(LocalDate.now(), OutputStream.nullOutputStream());
+    }
+}
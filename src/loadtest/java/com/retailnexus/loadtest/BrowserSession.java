@@ -0,0 +1,129 @@
+package com.retailnexus.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One logged-in browser: its own cookie jar (session and CSRF token) and connection pool. Redirects are not
+ * followed, so every request is timed on its own. Requests are recorded in {@link LatencyStats} only while
+ * the run's measurement window is open.
+ */
+final class BrowserSession {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private final String baseUrl;
+    private final LatencyStats stats;
+    private final LoadTest.Window window;
+    private final HttpClient client;
+    private String username;
+    private String password;
+    private String csrf;
+    private boolean loggedOut = true;
+
+    BrowserSession(String baseUrl, LatencyStats stats, LoadTest.Window window) {
+        this.baseUrl = baseUrl;
+        this.stats = stats;
+        this.window = window;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .cookieHandler(new CookieManager())
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    }
+
+    /** Form login; afterwards {@link #csrf()} is the token for POSTs. Throws if the credentials are refused. */
+    void login(String username, String password) throws IOException, InterruptedException {
+        this.username = username;
+        this.password = password;
+        HttpResponse<String> page = send("login-page", get("/login"), HttpResponse.BodyHandlers.ofString(), ok(200));
+        if (page == null) throw new IOException("GET /login failed");
+        HttpResponse<Void> login = send("login", post("/login", Map.of("username", username, "password", password,
+            "_csrf", token(page.body()))), HttpResponse.BodyHandlers.discarding(), r -> redirectsTo(r, "/dashboard"));
+        if (login == null || !redirectsTo(login, "/dashboard")) throw new IOException("Login refused for " + username);
+        loggedOut = false;
+        // Spring Security issues a new CSRF token with the session it creates at login
+        HttpResponse<String> billing = send("billing", get("/billing"), HttpResponse.BodyHandlers.ofString(), ok(200));
+        if (billing == null) throw new IOException("GET /billing failed after login");
+        csrf = token(billing.body());
+    }
+
+    /** Log in again if an earlier response bounced to the login page (e.g. the session expired). */
+    void ensureLoggedIn() throws IOException, InterruptedException {
+        if (loggedOut) login(username, password);
+    }
+
+    String csrf() {
+        return csrf;
+    }
+
+    /** GET {@code path}, reading the whole body; an error unless it answers 200. */
+    void page(String label, String path) throws InterruptedException {
+        send(label, get(path), HttpResponse.BodyHandlers.discarding(), ok(200));
+    }
+
+    HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT).GET().build();
+    }
+
+    HttpRequest post(String path, Map<String, String> form) {
+        StringJoiner body = new StringJoiner("&");
+        form.forEach((k, v) -> body.add(URLEncoder.encode(k, StandardCharsets.UTF_8) + "="
+            + URLEncoder.encode(v, StandardCharsets.UTF_8)));
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT)
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+            .build();
+    }
+
+    /**
+     * Send and record {@code request} under {@code label}; it counts as an error unless {@code success} accepts
+     * the response. Returns null if the request failed outright (connection error, timeout).
+     */
+    <T> HttpResponse<T> send(String label, HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                             Predicate<HttpResponse<?>> success) throws InterruptedException {
+        boolean measured = window.isOpen();
+        long start = System.nanoTime();
+        HttpResponse<T> response;
+        try {
+            response = client.send(request, handler);
+        } catch (IOException e) {
+            if (measured) stats.record(label, System.nanoTime() - start, true);
+            return null;
+        }
+        long nanos = System.nanoTime() - start;
+        if (redirectsTo(response, "/login")) loggedOut = true;
+        if (measured) stats.record(label, nanos, !success.test(response));
+        return response;
+    }
+
+    static Predicate<HttpResponse<?>> ok(int status) {
+        return r -> r.statusCode() == status;
+    }
+
+    static boolean redirectsTo(HttpResponse<?> response, String pathPrefix) {
+        if (response.statusCode() != 302) return false;
+        String location = response.headers().firstValue("Location").orElse("");
+        return URI.create(location).getPath().startsWith(pathPrefix);
+    }
+
+    private static String token(String html) throws IOException {
+        Matcher m = CSRF.matcher(html);
+        if (!m.find()) throw new IOException("No CSRF token in page");
+        return m.group(1);
+    }
+}
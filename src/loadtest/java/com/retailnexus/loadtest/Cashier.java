@@ -0,0 +1,93 @@
+package com.retailnexus.loadtest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A till: searches for a product (type-ahead), builds a cart of 1-8 lines (loose items in grams, packed items in
+ * pieces), completes the sale with {@code POST /billing/complete} and opens the invoice. Every tenth sale it
+ * re-syncs the catalog as the billing page does. Popular products are picked far more often than the tail, so
+ * tills contend for the same stock as they do on a real sale day.
+ */
+final class Cashier extends VirtualUser {
+
+    private static final String[] PAYMENT_METHODS = { "CASH", "CASH", "UPI", "CREDIT_CARD" };
+
+    private final List<CatalogSeeder.Item> catalog;
+    private final AtomicLong completedSales;
+    private String catalogEtag;
+    private int sales;
+
+    Cashier(String username, String password, String baseUrl, Duration thinkTime, LoadTest.Window window, long seed,
+            List<CatalogSeeder.Item> catalog, AtomicLong completedSales) {
+        super(username, password, baseUrl, thinkTime, window, seed);
+        this.catalog = catalog;
+        this.completedSales = completedSales;
+    }
+
+    @Override
+    protected void iteration() throws IOException, InterruptedException {
+        if (sales++ % 10 == 0) syncCatalog();
+
+        CatalogSeeder.Item searched = pick();
+        String prefix = searched.name().substring(0, Math.min(4, searched.name().length()));
+        session.send("suggest", session.get("/products/suggest?limit=20&q=" + URLEncoder.encode(prefix, StandardCharsets.UTF_8)),
+            HttpResponse.BodyHandlers.discarding(), BrowserSession.ok(200));
+
+        StringJoiner cart = new StringJoiner(";");
+        Set<Long> inCart = new HashSet<>();
+        cart.add(line(searched));
+        inCart.add(searched.id());
+        int lines = 1 + random.nextInt(8);
+        while (inCart.size() < lines) {
+            CatalogSeeder.Item item = pick();
+            if (inCart.add(item.id())) cart.add(line(item));
+        }
+
+        HttpResponse<Void> complete = session.send("billing/complete", session.post("/billing/complete", Map.of(
+                "items", cart.toString(),
+                "paymentMethod", PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)],
+                "_csrf", session.csrf())),
+            HttpResponse.BodyHandlers.discarding(), r -> BrowserSession.redirectsTo(r, "/billing/invoice/"));
+        if (complete != null && BrowserSession.redirectsTo(complete, "/billing/invoice/")) {
+            completedSales.incrementAndGet();
+            String location = complete.headers().firstValue("Location").orElseThrow();
+            session.page("billing/invoice", location.substring(location.indexOf("/billing/invoice/")));
+        }
+    }
+
+    private void syncCatalog() throws InterruptedException {
+        HttpRequest request = session.get("/api/catalog");
+        if (catalogEtag != null) {
+            request = HttpRequest.newBuilder(request, (name, value) -> true)
+                .header("If-None-Match", catalogEtag).build();
+        }
+        HttpResponse<Void> response = session.send("api/catalog", request, HttpResponse.BodyHandlers.discarding(),
+            r -> r.statusCode() == 200 || r.statusCode() == 304);
+        if (response != null) catalogEtag = response.headers().firstValue("ETag").orElse(catalogEtag);
+    }
+
+    /** Skewed pick: the square of a uniform draw puts about a third of picks on the first tenth of the catalog. */
+    private CatalogSeeder.Item pick() {
+        double u = random.nextDouble();
+        return catalog.get((int) (u * u * catalog.size()));
+    }
+
+    private String line(CatalogSeeder.Item item) {
+        BigDecimal qty = item.loose()
+            ? BigDecimal.valueOf(250 + random.nextInt(1750), 3)
+            : BigDecimal.valueOf(1 + random.nextInt(4));
+        return item.id() + ":" + qty.toPlainString() + "::";
+    }
+}
@@ -0,0 +1,142 @@
+package com.retailnexus.loadtest;
+
+import com.retailnexus.entity.Batch;
+import com.retailnexus.entity.Product;
+import com.retailnexus.entity.User;
+import com.retailnexus.repository.ProductRepository;
+import com.retailnexus.repository.UserRepository;
+import com.retailnexus.service.BatchService;
+import com.retailnexus.service.ProductService;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds the load-test database through the application's own services, so the search index, catalog versions,
+ * stock registry and inventory ledger see the data exactly as they would see products added in the UI: every
+ * batch gets its RESTOCK ledger row.
+ */
+final class CatalogSeeder {
+
+    static final String PASSWORD = "loadtest";
+    private static final int CHUNK = 200;
+
+    /** A product as the simulated tills know it; {@code loose} items are sold by weight or volume. */
+    record Item(long id, String name, boolean loose) {}
+
+    private record Line(String category, String gst, Product.Unit unit, int minCost, int maxCost,
+                        String[] brands, String[] goods) {}
+
+    private static final List<Line> LINES = List.of(
+        new Line("Dairy", "5", Product.Unit.LITRE, 25, 120, new String[] { "Amul", "Nandini", "Mother Dairy", "Heritage", "Aavin" },
+            new String[] { "Toned Milk", "Full Cream Milk", "Curd", "Buttermilk", "Lassi" }),
+        new Line("Dairy", "12", Product.Unit.PIECES, 40, 600, new String[] { "Amul", "Britannia", "Go", "Milky Mist" },
+            new String[] { "Cheese Slices", "Paneer 200g", "Butter 100g", "Ghee 500ml", "Cheese Spread" }),
+        new Line("Grains", "5", Product.Unit.KG, 30, 180, new String[] { "India Gate", "Daawat", "Aashirvaad", "Fortune", "Loose" },
+            new String[] { "Basmati Rice", "Sona Masoori Rice", "Whole Wheat Atta", "Maida", "Rava", "Poha" }),
+        new Line("Pulses", "5", Product.Unit.KG, 60, 200, new String[] { "Tata Sampann", "24 Mantra", "Loose" },
+            new String[] { "Toor Dal", "Moong Dal", "Chana Dal", "Masoor Dal", "Urad Dal", "Rajma", "Kabuli Chana" }),
+        new Line("Grains", "5", Product.Unit.LITRE, 110, 260, new String[] { "Fortune", "Saffola", "Dhara", "Gemini" },
+            new String[] { "Sunflower Oil", "Mustard Oil", "Groundnut Oil", "Rice Bran Oil" }),
+        new Line("Beverages", "28", Product.Unit.PIECES, 15, 120, new String[] { "Coca Cola", "Pepsi", "Thums Up", "Sprite", "Limca" },
+            new String[] { "Can 300ml", "Bottle 750ml", "Bottle 2L" }),
+        new Line("Beverages", "5", Product.Unit.PIECES, 90, 500, new String[] { "Tata Tea", "Red Label", "Taj Mahal", "Bru", "Nescafe" },
+            new String[] { "Tea 250g", "Tea 1kg", "Coffee 100g", "Coffee 200g" }),
+        new Line("Snacks", "12", Product.Unit.PIECES, 8, 250, new String[] { "Lay's", "Haldiram's", "Bikaji", "Kurkure", "Britannia", "Parle" },
+            new String[] { "Chips", "Bhujia", "Namkeen Mix", "Cookies", "Cream Biscuits", "Rusk", "Cake" }),
+        new Line("Toiletries", "18", Product.Unit.PIECES, 20, 400, new String[] { "Dove", "Lux", "Colgate", "Pepsodent", "Dettol", "Himalaya" },
+            new String[] { "Soap", "Toothpaste", "Shampoo 180ml", "Face Wash", "Handwash Refill" }),
+        new Line("Household", "18", Product.Unit.PIECES, 15, 350, new String[] { "Vim", "Surf Excel", "Ariel", "Harpic", "Lizol", "Colin" },
+            new String[] { "Dishwash Bar", "Detergent 1kg", "Toilet Cleaner", "Floor Cleaner", "Glass Cleaner" }),
+        new Line("Fruits & Vegetables", "0", Product.Unit.KG, 15, 250, new String[] { "Fresh", "Organic" },
+            new String[] { "Onion", "Potato", "Tomato", "Apple", "Banana", "Carrot", "Capsicum", "Cucumber" }));
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final BatchService batchService;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactions;
+
+    CatalogSeeder(ApplicationContext context) {
+        this.productService = context.getBean(ProductService.class);
+        this.productRepository = context.getBean(ProductRepository.class);
+        this.batchService = context.getBean(BatchService.class);
+        this.userRepository = context.getBean(UserRepository.class);
+        this.passwordEncoder = context.getBean(PasswordEncoder.class);
+        this.transactions = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    /** Top the catalog up to {@code products} products, each with 1-3 batches of 20-300 units. */
+    int seedCatalog(int products, long seed) {
+        long existing = productRepository.count();
+        int missing = (int) Math.max(0, products - existing);
+        Random random = new Random(seed);
+        LocalDate today = LocalDate.now();
+        for (int from = 0; from < missing; from += CHUNK) {
+            int count = Math.min(CHUNK, missing - from);
+            int offset = (int) existing + from;
+            transactions.executeWithoutResult(status -> {
+                for (int i = 0; i < count; i++) {
+                    Product product = productService.save(product(offset + i, random));
+                    int batches = 1 + random.nextInt(3);
+                    for (int b = 0; b < batches; b++) {
+                        Batch batch = new Batch();
+                        batch.setProduct(product);
+                        batch.setBatchNumber("LT-" + product.getId() + "-" + b);
+                        // One batch in twenty is close to expiry, as on a real shelf
+                        batch.setExpiryDate(today.plusDays(random.nextInt(20) == 0 ? 1 + random.nextInt(5) : 10 + random.nextInt(700)));
+                        batch.setQuantity(20 + random.nextInt(281));
+                        batchService.save(batch);
+                    }
+                }
+            });
+        }
+        return missing;
+    }
+
+    private static Product product(int n, Random random) {
+        Line line = LINES.get(random.nextInt(LINES.size()));
+        Product p = new Product();
+        p.setName(line.brands[random.nextInt(line.brands.length)] + " " + line.goods[random.nextInt(line.goods.length)] + " #" + n);
+        p.setBarcode(String.format("89%011d", 90_000_000L + n));
+        p.setCategory(line.category);
+        BigDecimal cost = BigDecimal.valueOf(line.minCost * 100L + random.nextInt((line.maxCost - line.minCost) * 100), 2);
+        p.setCostPrice(cost);
+        p.setSellingPrice(cost.multiply(BigDecimal.valueOf(108 + random.nextInt(28), 2)).setScale(2, RoundingMode.HALF_UP));
+        p.setGstPercent(new BigDecimal(line.gst));
+        p.setUnit(line.unit);
+        return p;
+    }
+
+    /** Create {@code prefix}1..{@code prefix}N with password {@link #PASSWORD} where missing. */
+    void seedUsers(String prefix, int count, User.Role role) {
+        transactions.executeWithoutResult(status -> {
+            for (int i = 1; i <= count; i++) {
+                String username = prefix + i;
+                if (userRepository.findByUsername(username).isPresent()) continue;
+                User user = new User();
+                user.setUsername(username);
+                user.setPassword(passwordEncoder.encode(PASSWORD));
+                user.setRole(role);
+                userRepository.save(user);
+            }
+        });
+    }
+
+    /** Every product, in id order; the tills treat earlier products as the popular ones. */
+    List<Item> catalog() {
+        return productRepository.findAll().stream()
+            .sorted(Comparator.comparing(Product::getId))
+            .map(p -> new Item(p.getId(), p.getName(), p.getUnit() != Product.Unit.PIECES))
+            .toList();
+    }
+}
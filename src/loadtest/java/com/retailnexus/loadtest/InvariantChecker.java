@@ -0,0 +1,132 @@
+package com.retailnexus.loadtest;
+
+import com.retailnexus.service.BatchAllocator;
+import com.retailnexus.service.InventoryLedger;
+import com.retailnexus.service.StockRegistry;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consistency checks run once the load has stopped. Each returns the violations it found (empty = holds). They
+ * compare whole tables, so they also cover data written before this run (e.g. with {@code --reuse-db}).
+ */
+final class InvariantChecker {
+
+    private static final int MAX_EXAMPLES = 5;
+
+    private final JdbcTemplate jdbc;
+    private final StockRegistry stockRegistry;
+    private final BatchAllocator batchAllocator;
+    private final InventoryLedger ledger;
+
+    InvariantChecker(ApplicationContext context) {
+        this.jdbc = new JdbcTemplate(context.getBean(DataSource.class));
+        this.stockRegistry = context.getBean(StockRegistry.class);
+        this.batchAllocator = context.getBean(BatchAllocator.class);
+        this.ledger = context.getBean(InventoryLedger.class);
+    }
+
+    long saleCount() {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM sales", Long.class);
+    }
+
+    /** Name of each invariant and its violations, in check order. */
+    Map<String, List<String>> check(long salesBefore, long salesCompletedByClients) throws InterruptedException {
+        Map<String, List<String>> results = new LinkedHashMap<>();
+        // With the asynchronous ledger, rows of the last sales may still be queued
+        results.put("ledger writer caught up", ledger.flush(Duration.ofSeconds(30)) ? List.of()
+            : List.of("ledger rows still unwritten after 30 s"));
+        results.put("batch stock equals its inventory ledger", examples(
+            "SELECT b.id, b.quantity, COALESCE(SUM(t.quantity_change), 0) FROM batches b"
+                + " LEFT JOIN inventory_transactions t ON t.batch_id = b.id GROUP BY b.id, b.quantity"
+                + " HAVING b.quantity <> COALESCE(SUM(t.quantity_change), 0)",
+            "batch %s: quantity %s, ledger sum %s"));
+        results.put("every sale item has its ledger deduction", examples(
+            "SELECT i.sale_id, i.batch_id, i.qty, COALESCE(l.qty, 0) FROM"
+                + " (SELECT sale_id, batch_id, SUM(CEILING(quantity)) qty FROM sale_items GROUP BY sale_id, batch_id) i"
+                + " LEFT JOIN (SELECT reference, batch_id, -SUM(quantity_change) qty FROM inventory_transactions"
+                + "   WHERE type = 'SALE' GROUP BY reference, batch_id) l"
+                + " ON l.reference = CONCAT('SALE-', i.sale_id) AND l.batch_id = i.batch_id"
+                + " WHERE l.qty IS NULL OR l.qty <> i.qty",
+            "sale %s, batch %s: items need %s, ledger deducted %s"));
+        results.put("every sale deduction belongs to a sale item", examples(
+            "SELECT t.reference, t.batch_id, -SUM(t.quantity_change) FROM inventory_transactions t WHERE t.type = 'SALE'"
+                + " AND NOT EXISTS (SELECT 1 FROM sale_items i WHERE CONCAT('SALE-', i.sale_id) = t.reference"
+                + "   AND i.batch_id = t.batch_id) GROUP BY t.reference, t.batch_id",
+            "%s, batch %s: %s deducted without a sale item"));
+        // Items are stored rounded to paise one by one and the sale total once, so they may differ by half a paisa per item
+        results.put("sale totals equal the sum of their items", examples(
+            "SELECT s.id, s.total_amount, SUM(i.total_price), s.total_profit, SUM(i.profit) FROM sales s"
+                + " JOIN sale_items i ON i.sale_id = s.id GROUP BY s.id, s.total_amount, s.total_gst, s.total_profit"
+                + " HAVING ABS(s.total_amount - SUM(i.total_price)) > 0.005 * COUNT(*)"
+                + "   OR ABS(s.total_gst - SUM(i.gst_amount)) > 0.005 * COUNT(*)"
+                + "   OR ABS(s.total_profit - SUM(i.profit)) > 0.005 * COUNT(*)",
+            "sale %s: total %s, items %s; profit %s, items %s"));
+        results.put("daily rollup equals the sales of each day", examples(
+            "SELECT s.d, s.revenue, COALESCE(r.revenue, 0), s.n, COALESCE(r.sale_count, 0) FROM"
+                + " (SELECT CAST(sale_date AS DATE) d, SUM(total_amount) revenue, COUNT(*) n FROM sales GROUP BY CAST(sale_date AS DATE)) s"
+                + " LEFT JOIN daily_sales_summary r ON r.sales_date = s.d"
+                + " WHERE r.sales_date IS NULL OR r.revenue <> s.revenue OR r.sale_count <> s.n",
+            "%s: sales %s, rollup %s (%s sales, rollup counts %s)"));
+        results.put("product rollup equals the items of each day", examples(
+            "SELECT i.product_id, i.d, i.qty, COALESCE(r.quantity, 0) FROM"
+                + " (SELECT si.product_id, CAST(s.sale_date AS DATE) d, SUM(si.quantity) qty FROM sale_items si"
+                + "   JOIN sales s ON s.id = si.sale_id GROUP BY si.product_id, CAST(s.sale_date AS DATE)) i"
+                + " LEFT JOIN product_daily_sales r ON r.product_id = i.product_id AND r.sales_date = i.d"
+                + " WHERE r.quantity IS NULL OR r.quantity <> i.qty",
+            "product %s on %s: items %s, rollup %s"));
+        results.put("stock registry equals batches", registryDrift());
+        // The load has stopped, so a reconciliation pass cannot race with a sale; its drift count is the answer
+        batchAllocator.reconcile();
+        long allocatorDrift = batchAllocator.getLastDriftCount();
+        results.put("batch allocator equals batches", allocatorDrift == 0 ? List.of()
+            : List.of(allocatorDrift + " products differ (see the log)"));
+
+        long created = saleCount() - salesBefore;
+        results.put("sales in the database equal sales the tills completed", created == salesCompletedByClients ? List.of()
+            : List.of(created + " sales written, " + salesCompletedByClients + " redirects to an invoice"));
+        return results;
+    }
+
+    /** Batches sold below zero (the oversell fallback); allowed, reported for information. */
+    long negativeBatches() {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM batches WHERE quantity < 0", Long.class);
+    }
+
+    private List<String> registryDrift() {
+        Map<Long, Integer> batches = new HashMap<>();
+        jdbc.query("SELECT product_id, SUM(quantity) FROM batches GROUP BY product_id",
+            rs -> { batches.put(rs.getLong(1), rs.getInt(2)); });
+        Map<Long, Integer> registry = stockRegistry.asMap();
+        List<String> drift = new ArrayList<>();
+        batches.forEach((productId, qty) -> {
+            int cached = registry.getOrDefault(productId, 0);
+            if (cached != qty) drift.add("product " + productId + ": registry " + cached + ", batches " + qty);
+        });
+        return drift.size() <= MAX_EXAMPLES ? drift : summarize(drift);
+    }
+
+    private List<String> examples(String sql, String format) {
+        List<String> found = new ArrayList<>();
+        jdbc.query(sql, rs -> {
+            Object[] values = new Object[rs.getMetaData().getColumnCount()];
+            for (int i = 0; i < values.length; i++) values[i] = rs.getObject(i + 1);
+            found.add(String.format(format, values));
+        });
+        return found.size() <= MAX_EXAMPLES ? found : summarize(found);
+    }
+
+    private static List<String> summarize(List<String> found) {
+        List<String> shown = new ArrayList<>(found.subList(0, MAX_EXAMPLES));
+        shown.add("... " + (found.size() - MAX_EXAMPLES) + " more");
+        return shown;
+    }
+}
@@ -0,0 +1,80 @@
+package com.retailnexus.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies and errors per endpoint label. Each virtual user records into its own instance (no locking on the
+ * request path); the harness merges them once the run is over.
+ */
+final class LatencyStats {
+
+    private final Map<String, Recorder> byEndpoint = new TreeMap<>();
+
+    void record(String endpoint, long nanos, boolean error) {
+        byEndpoint.computeIfAbsent(endpoint, e -> new Recorder()).add(nanos, error);
+    }
+
+    void mergeFrom(LatencyStats other) {
+        other.byEndpoint.forEach((endpoint, recorder) ->
+            byEndpoint.computeIfAbsent(endpoint, e -> new Recorder()).addAll(recorder));
+    }
+
+    /** One row per endpoint, in name order, plus a final "all" row. */
+    String report(double seconds) {
+        StringBuilder out = new StringBuilder(String.format("%-22s %8s %9s %7s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "req/s", "errors", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        Recorder all = new Recorder();
+        byEndpoint.forEach((endpoint, recorder) -> {
+            out.append(recorder.row(endpoint, seconds));
+            all.addAll(recorder);
+        });
+        out.append(all.row("all", seconds));
+        return out.toString();
+    }
+
+    long requests(String endpoint) {
+        Recorder recorder = byEndpoint.get(endpoint);
+        return recorder != null ? recorder.size : 0;
+    }
+
+    long errors(String endpoint) {
+        Recorder recorder = byEndpoint.get(endpoint);
+        return recorder != null ? recorder.errors : 0;
+    }
+
+    private static final class Recorder {
+        private long[] nanos = new long[256];
+        private int size;
+        private long errors;
+
+        void add(long value, boolean error) {
+            if (size == nanos.length) nanos = Arrays.copyOf(nanos, size * 2);
+            nanos[size++] = value;
+            if (error) errors++;
+        }
+
+        void addAll(Recorder other) {
+            if (size + other.size > nanos.length) nanos = Arrays.copyOf(nanos, Math.max(size + other.size, size * 2));
+            System.arraycopy(other.nanos, 0, nanos, size, other.size);
+            size += other.size;
+            errors += other.errors;
+        }
+
+        String row(String endpoint, double seconds) {
+            long[] sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+            return String.format("%-22s %8d %9.1f %6.2f%% %9.1f %9.1f %9.1f %9.1f%n", endpoint, size, size / seconds,
+                size == 0 ? 0.0 : 100.0 * errors / size, millis(sorted, 0.50), millis(sorted, 0.95),
+                millis(sorted, 0.99), size == 0 ? 0.0 : sorted[size - 1] / 1e6);
+        }
+
+        /** Nearest-rank percentile. */
+        private static double millis(long[] sorted, double percentile) {
+            if (sorted.length == 0) return 0;
+            int rank = (int) Math.ceil(percentile * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.retailnexus.loadtest;
+
+import com.retailnexus.RetailNexusApplication;
+import com.retailnexus.entity.User;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end load test (see docs/LOAD-TEST.md): boots the application in this JVM against a file-backed H2
+ * database, seeds a catalog and users, runs {@code cashiers} tills and {@code managers} back-office users over
+ * HTTP for a warm-up and then a measured window, prints throughput and latency percentiles per endpoint, and
+ * finally checks the stock/ledger/rollup invariants. Exits 1 if an invariant is violated.
+ * <p>
+ * Options ({@code --name=value}): cashiers, managers, duration, warmup, products, cashier-think, manager-think,
+ * seed, db, reuse-db. Any other {@code --option} is passed to Spring Boot, e.g.
+ * {@code --spring.datasource.hikari.maximum-pool-size=20}.
+ */
+public final class LoadTest {
+
+    record Options(int cashiers, int managers, Duration duration, Duration warmup, int products,
+                   Duration cashierThink, Duration managerThink, long seed, Path db, boolean reuseDb,
+                   List<String> springArgs) {
+
+        static Options parse(String[] args) {
+            int cashiers = 8, managers = 2, products = 2000;
+            Duration duration = Duration.ofSeconds(60), warmup = Duration.ofSeconds(10);
+            Duration cashierThink = Duration.ofSeconds(1), managerThink = Duration.ofSeconds(3);
+            long seed = 42;
+            Path db = Path.of("target", "loadtest", "retailnexus");
+            boolean reuseDb = false;
+            List<String> springArgs = new ArrayList<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--")) throw new IllegalArgumentException("Unexpected argument: " + arg);
+                int eq = arg.indexOf('=');
+                String name = eq < 0 ? arg.substring(2) : arg.substring(2, eq);
+                String value = eq < 0 ? "true" : arg.substring(eq + 1);
+                switch (name) {
+                    case "cashiers" -> cashiers = Integer.parseInt(value);
+                    case "managers" -> managers = Integer.parseInt(value);
+                    case "duration" -> duration = Duration.parse(value);
+                    case "warmup" -> warmup = Duration.parse(value);
+                    case "products" -> products = Integer.parseInt(value);
+                    case "cashier-think" -> cashierThink = Duration.parse(value);
+                    case "manager-think" -> managerThink = Duration.parse(value);
+                    case "seed" -> seed = Long.parseLong(value);
+                    case "db" -> db = Path.of(value);
+                    case "reuse-db" -> reuseDb = Boolean.parseBoolean(value);
+                    default -> springArgs.add(arg);
+                }
+            }
+            return new Options(cashiers, managers, duration, warmup, products, cashierThink, managerThink, seed,
+                db.toAbsolutePath(), reuseDb, springArgs);
+        }
+    }
+
+    /** Warm-up, then the measured window; virtual users stop at its end. */
+    static final class Window {
+        private final long start;
+        private final long end;
+
+        Window(Duration warmup, Duration duration) {
+            this.start = System.nanoTime() + warmup.toNanos();
+            this.end = start + duration.toNanos();
+        }
+
+        boolean isOpen() {
+            long now = System.nanoTime();
+            return now >= start && now < end;
+        }
+
+        boolean isOver() {
+            return System.nanoTime() >= end;
+        }
+
+        void awaitEnd() throws InterruptedException {
+            long left;
+            while ((left = end - System.nanoTime()) > 0) Thread.sleep(Math.min(1000, left / 1_000_000 + 1));
+        }
+    }
+
+    private final Options options;
+
+    private LoadTest(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.exit(new LoadTest(Options.parse(args)).run());
+    }
+
+    private int run() throws IOException, InterruptedException {
+        if (!options.reuseDb()) deleteDatabase();
+        try (ConfigurableApplicationContext context = boot()) {
+            String baseUrl = "http://127.0.0.1:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            CatalogSeeder seeder = new CatalogSeeder(context);
+            int seeded = seeder.seedCatalog(options.products(), options.seed());
+            seeder.seedUsers("cashier", options.cashiers(), User.Role.CASHIER);
+            seeder.seedUsers("manager", options.managers(), User.Role.ADMIN);
+            List<CatalogSeeder.Item> catalog = seeder.catalog();
+            InvariantChecker checker = new InvariantChecker(context);
+            long salesBefore = checker.saleCount();
+            System.out.printf("%nApplication at %s (metrics: http://127.0.0.1:%s/actuator/prometheus), %d products"
+                    + " (%d seeded), %d sales already in the database%n", baseUrl,
+                context.getEnvironment().getProperty("local.management.port"), catalog.size(), seeded, salesBefore);
+
+            AtomicLong completedSales = new AtomicLong();
+            Window window = new Window(options.warmup(), options.duration());
+            List<VirtualUser> users = new ArrayList<>();
+            for (int i = 1; i <= options.cashiers(); i++) {
+                users.add(new Cashier("cashier" + i, CatalogSeeder.PASSWORD, baseUrl, options.cashierThink(), window,
+                    options.seed() + i, catalog, completedSales));
+            }
+            for (int i = 1; i <= options.managers(); i++) {
+                users.add(new Manager("manager" + i, CatalogSeeder.PASSWORD, baseUrl, options.managerThink(), window,
+                    options.seed() + 10_000 + i));
+            }
+            System.out.printf("Running %d cashiers and %d managers: %s warm-up, then %s measured%n",
+                options.cashiers(), options.managers(), options.warmup(), options.duration());
+            List<Thread> threads = new ArrayList<>();
+            for (VirtualUser user : users) {
+                Thread thread = new Thread(user, "lt-" + user.username);
+                thread.start();
+                threads.add(thread);
+            }
+            window.awaitEnd();
+            for (Thread thread : threads) thread.join(Duration.ofMinutes(2).toMillis());
+
+            LatencyStats stats = new LatencyStats();
+            users.forEach(user -> stats.mergeFrom(user.stats()));
+            double seconds = options.duration().toNanos() / 1e9;
+            System.out.printf("%n== Latency over the measured %.0f s ==%n%s", seconds, stats.report(seconds));
+            long measuredSales = stats.requests("billing/complete") - stats.errors("billing/complete");
+            System.out.printf("%nSales: %d in the measured window (%.1f/s), %d in total; %d batches oversold below zero%n",
+                measuredSales, measuredSales / seconds, completedSales.get(), checker.negativeBatches());
+
+            System.out.printf("%n== Invariants ==%n");
+            boolean ok = true;
+            for (Map.Entry<String, List<String>> result : checker.check(salesBefore, completedSales.get()).entrySet()) {
+                boolean holds = result.getValue().isEmpty();
+                ok &= holds;
+                System.out.printf("[%s] %s%n", holds ? " OK " : "FAIL", result.getKey());
+                result.getValue().forEach(violation -> System.out.println("       " + violation));
+            }
+            return ok ? 0 : 1;
+        }
+    }
+
+    private ConfigurableApplicationContext boot() {
+        // DevTools is on the test classpath; its restarter would relaunch the app in another class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> args = new ArrayList<>(List.of(
+            "--spring.datasource.url=jdbc:h2:file:" + options.db() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+            // Named like the database files, so a clean start deletes it with them
+            "--retailnexus.ledger.spill-file=" + options.db() + ".ledger-spill.bin",
+            "--server.address=127.0.0.1",
+            "--server.port=0",
+            "--management.server.port=0",
+            // Templates are cached in production; re-parsing them per request would dominate page latencies
+            "--spring.thymeleaf.cache=true",
+            "--spring.h2.console.enabled=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.retailnexus.loadtest=INFO"));
+        args.addAll(options.springArgs());
+        return SpringApplication.run(RetailNexusApplication.class, args.toArray(String[]::new));
+    }
+
+    private void deleteDatabase() throws IOException {
+        Path dir = options.db().getParent();
+        String name = options.db().getFileName().toString();
+        if (!Files.isDirectory(dir)) return;
+        try (var files = Files.list(dir)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().startsWith(name + ".")).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
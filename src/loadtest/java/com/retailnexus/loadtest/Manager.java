@@ -0,0 +1,28 @@
+package com.retailnexus.loadtest;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/** A back-office user cycling through the dashboard and the report pages; every fifth round also a PDF. */
+final class Manager extends VirtualUser {
+
+    private int round;
+
+    Manager(String username, String password, String baseUrl, Duration thinkTime, LoadTest.Window window, long seed) {
+        super(username, password, baseUrl, thinkTime, window, seed);
+    }
+
+    @Override
+    protected void iteration() throws InterruptedException {
+        switch (round++ % 5) {
+            case 0 -> session.page("dashboard", "/dashboard");
+            case 1 -> session.page("reports/daily", "/reports/daily");
+            case 2 -> session.page("reports/monthly", "/reports/monthly");
+            case 3 -> session.page("reports/low-stock", "/reports/low-stock");
+            default -> session.page("reports/dead-stock", "/reports/dead-stock");
+        }
+        if (round % 25 == 0) {
+            session.page("reports/daily/pdf", "/reports/daily/pdf?date=" + LocalDate.now());
+        }
+    }
+}
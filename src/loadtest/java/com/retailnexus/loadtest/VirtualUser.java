@@ -0,0 +1,62 @@
+package com.retailnexus.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * A simulated user on its own thread: logs in, then repeats {@link #iteration()} with a randomised think time
+ * (0.5x to 1.5x {@code thinkTime}) until the run is over.
+ */
+abstract class VirtualUser implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualUser.class);
+
+    protected final String username;
+    protected final BrowserSession session;
+    protected final LatencyStats stats = new LatencyStats();
+    protected final Random random;
+    private final String password;
+    private final Duration thinkTime;
+    private final LoadTest.Window window;
+
+    VirtualUser(String username, String password, String baseUrl, Duration thinkTime, LoadTest.Window window, long seed) {
+        this.username = username;
+        this.password = password;
+        this.thinkTime = thinkTime;
+        this.window = window;
+        this.random = new Random(seed);
+        this.session = new BrowserSession(baseUrl, stats, window);
+    }
+
+    protected abstract void iteration() throws IOException, InterruptedException;
+
+    LatencyStats stats() {
+        return stats;
+    }
+
+    @Override
+    public void run() {
+        try {
+            session.login(username, password);
+            while (!window.isOver()) {
+                try {
+                    session.ensureLoggedIn();
+                    iteration();
+                } catch (IOException e) {
+                    log.warn("{}: {}", username, e.getMessage());
+                    Thread.sleep(1000);
+                }
+                long think = thinkTime.toMillis();
+                if (think > 0) Thread.sleep(think / 2 + (long) (random.nextDouble() * think));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("{} could not log in: {}", username, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.retailnexus.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+
+/**
+ * Percentile histograms for the checkout requests, so their latency percentiles can be aggregated in Prometheus;
+ * other {@code http.server.requests} series (which also time dashboard and report page renders, view included)
+ * stay plain timers to keep the scrape small. Histograms of the sale timers are set in application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+    static final Set<String> CHECKOUT_URIS = Set.of("/billing/complete", "/api/checkout");
+
+    @Bean
+    public MeterFilter checkoutRequestHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().equals("http.server.requests") && CHECKOUT_URIS.contains(id.getTag("uri"))) {
+                    return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+                }
+                return config;
+            }
+        };
+    }
+}
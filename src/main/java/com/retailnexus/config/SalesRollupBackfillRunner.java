@@ -0,0 +1,35 @@
+package com.retailnexus.config;
+
+import com.retailnexus.repository.SaleRepository;
+import com.retailnexus.service.SalesRollupService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills daily_sales_summary and product_daily_sales from existing sales on the first start after the
+ * rollup tables were added. Start with {@code --rebuild-rollups} to recompute them from scratch.
+ */
+@Component
+@Order(2)
+public class SalesRollupBackfillRunner implements ApplicationRunner {
+
+    static final String REBUILD_OPTION = "rebuild-rollups";
+
+    private final SalesRollupService salesRollupService;
+    private final SaleRepository saleRepository;
+
+    public SalesRollupBackfillRunner(SalesRollupService salesRollupService, SaleRepository saleRepository) {
+        this.salesRollupService = salesRollupService;
+        this.saleRepository = saleRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(REBUILD_OPTION)
+            || (salesRollupService.isEmpty() && saleRepository.count() > 0)) {
+            salesRollupService.rebuild();
+        }
+    }
+}
@@ -3,18 +3,24 @@ package com.retailnexus.config;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
 
 /**
- * Ensures the products.unit column exists (for DBs created before unit was added to Product entity).
+ * Ensures the products.unit column exists (for DBs created before unit was added to Product entity),
+ * and moves id sequences past ids issued while those tables still used IDENTITY columns.
  */
 @Component
 @Order(1)
 public class SchemaMigrationRunner implements ApplicationRunner {
 
+    /** Must match allocationSize of the entities' @SequenceGenerator. */
+    private static final int ID_ALLOCATION_SIZE = 50;
+    private static final List<String> SEQUENCE_TABLES = List.of("sales", "sale_items", "batches", "inventory_transactions");
+
     private final JdbcTemplate jdbcTemplate;
 
     public SchemaMigrationRunner(JdbcTemplate jdbcTemplate) {
@@ -42,6 +48,7 @@ public class SchemaMigrationRunner implements ApplicationRunner {
             }
         }
         dropBatchesQuantityCheckConstraint();
+        alignIdSequences();
     }
 
     private static boolean isExpectedMigrationError(Throwable e, String... keywords) {
@@ -54,6 +61,33 @@ public class SchemaMigrationRunner implements ApplicationRunner {
         return false;
     }
 
+    /**
+     * Sale, SaleItem, Batch and InventoryTransaction switched from IDENTITY to pooled sequences. Hibernate
+     * creates the sequences starting at 1, so on a database that already has rows restart each sequence
+     * past the highest id. The pooled optimizer treats the first value read as the top of a block of
+     * {@link #ID_ALLOCATION_SIZE} ids, hence the extra block.
+     */
+    private void alignIdSequences() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        for (String table : SEQUENCE_TABLES) {
+            String sequence = table + "_seq";
+            try {
+                Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+                Long current = "PostgreSQL".equals(database)
+                    ? jdbcTemplate.queryForObject("SELECT last_value FROM " + sequence, Long.class)
+                    : jdbcTemplate.queryForObject(
+                        "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?",
+                        Long.class, sequence.toUpperCase());
+                if (maxId == null || maxId == 0 || current == null || current > maxId) continue;
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + ID_ALLOCATION_SIZE + 1));
+            } catch (Exception e) {
+                if (!isExpectedMigrationError(e, "not found", "does not exist", "Incorrect result size")) {
+                    throw new RuntimeException("Schema migration failed (" + sequence + ")", e);
+                }
+            }
+        }
+    }
+
     /** Drops CHECK constraint on batches.quantity so quantity can go negative on oversell. */
     private void dropBatchesQuantityCheckConstraint() {
         try {
@@ -0,0 +1,85 @@
+package com.retailnexus.config;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Per-thread JDBC counters filled by {@link SqlStatsDataSourcePostProcessor}: statements executed (a JDBC batch
+ * counts once, as one round trip), result-set rows read and time spent in JDBC calls. Open a {@link Scope}
+ * around the work to measure; scopes nest (a test measuring a request also sees what the request filter sees).
+ * Work handed to other threads (async report streaming, dashboard widgets) is not counted.
+ */
+public final class SqlStats {
+
+    private static final ThreadLocal<Deque<Scope>> SCOPES = new ThreadLocal<>();
+
+    private SqlStats() {}
+
+    /** What a scope has counted so far. */
+    public record Snapshot(int statements, long rows, long jdbcNanos) {
+        public long jdbcMillis() {
+            return jdbcNanos / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            return statements + " statements, " + rows + " rows, " + jdbcMillis() + " ms JDBC";
+        }
+    }
+
+    /** Start counting on this thread until the returned scope is closed. */
+    public static Scope open() {
+        Deque<Scope> scopes = SCOPES.get();
+        if (scopes == null) {
+            scopes = new ArrayDeque<>(2);
+            SCOPES.set(scopes);
+        }
+        Scope scope = new Scope();
+        scopes.push(scope);
+        return scope;
+    }
+
+    /** Open scopes of this thread, or null when nothing is being measured (the common case). */
+    static Deque<Scope> scopes() {
+        return SCOPES.get();
+    }
+
+    static void statementExecuted(Deque<Scope> scopes, long nanos) {
+        for (Scope scope : scopes) {
+            scope.statements++;
+            scope.jdbcNanos += nanos;
+        }
+    }
+
+    static void rowRead(Deque<Scope> scopes) {
+        for (Scope scope : scopes) {
+            scope.rows++;
+        }
+    }
+
+    static void jdbcTime(Deque<Scope> scopes, long nanos) {
+        for (Scope scope : scopes) {
+            scope.jdbcNanos += nanos;
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private int statements;
+        private long rows;
+        private long jdbcNanos;
+
+        private Scope() {}
+
+        public Snapshot snapshot() {
+            return new Snapshot(statements, rows, jdbcNanos);
+        }
+
+        @Override
+        public void close() {
+            Deque<Scope> scopes = SCOPES.get();
+            if (scopes == null) return;
+            scopes.remove(this);
+            if (scopes.isEmpty()) SCOPES.remove();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.retailnexus.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps the DataSource so every connection, statement and result set handed to Hibernate or JdbcTemplate
+ * reports to {@link SqlStats}. Outside an open scope the wrappers only delegate. Disable with
+ * {@code retailnexus.sql-stats.enabled=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "retailnexus.sql-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatsDataSourcePostProcessor implements BeanPostProcessor {
+
+    private enum Kind { DATA_SOURCE, CONNECTION, STATEMENT, RESULT_SET }
+
+    private static final Map<Class<?>, Class<?>[]> INTERFACES = new ConcurrentHashMap<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !(Proxy.isProxyClass(bean.getClass())
+                && Proxy.getInvocationHandler(bean) instanceof Handler)) {
+            return wrap(bean, Kind.DATA_SOURCE);
+        }
+        return bean;
+    }
+
+    /** Proxy implementing every public interface of {@code target}, so unwrap, close() and pool MXBeans still work. */
+    private static Object wrap(Object target, Kind kind) {
+        Class<?>[] interfaces = INTERFACES.computeIfAbsent(target.getClass(), type ->
+            Arrays.stream(ClassUtils.getAllInterfacesForClass(type, type.getClassLoader()))
+                .filter(i -> Modifier.isPublic(i.getModifiers()))
+                .toArray(Class<?>[]::new));
+        return Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces, new Handler(target, kind));
+    }
+
+    private record Handler(Object target, Kind kind) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (name) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> method.invoke(target, args);
+                };
+            }
+            Deque<SqlStats.Scope> scopes = SqlStats.scopes();
+            boolean execute = kind == Kind.STATEMENT && name.startsWith("execute");
+            boolean next = kind == Kind.RESULT_SET && name.equals("next");
+            long start = scopes != null && (execute || next) ? System.nanoTime() : 0;
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (start != 0) {
+                long nanos = System.nanoTime() - start;
+                if (execute) {
+                    SqlStats.statementExecuted(scopes, nanos);
+                } else {
+                    SqlStats.jdbcTime(scopes, nanos);
+                    if (Boolean.TRUE.equals(result)) SqlStats.rowRead(scopes);
+                }
+            }
+            if (result == null) return null;
+            return switch (kind) {
+                case DATA_SOURCE -> name.equals("getConnection") ? wrap(result, Kind.CONNECTION) : result;
+                case CONNECTION -> name.equals("createStatement") || name.equals("prepareStatement") || name.equals("prepareCall")
+                    ? wrap(result, Kind.STATEMENT) : result;
+                case STATEMENT -> name.equals("executeQuery") || name.equals("getResultSet") || name.equals("getGeneratedKeys")
+                    ? wrap(result, Kind.RESULT_SET) : result;
+                case RESULT_SET -> result;
+            };
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.retailnexus.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Counts the SQL of each HTTP request (see {@link SqlStats}) and logs a warning for requests above
+ * {@code retailnexus.sql-stats.warn-statements} statements or {@code warn-jdbc-time} of JDBC time. With
+ * {@code retailnexus.sql-stats.headers=true} (profile "dev") every response also carries X-SQL-Statements,
+ * X-SQL-Rows and X-SQL-Time-Ms, counted up to the moment the response was committed.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "retailnexus.sql-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatsFilter.class);
+
+    private final boolean headers;
+    private final int warnStatements;
+    private final Duration warnJdbcTime;
+
+    public SqlStatsFilter(@Value("${retailnexus.sql-stats.headers:false}") boolean headers,
+                          @Value("${retailnexus.sql-stats.warn-statements:50}") int warnStatements,
+                          @Value("${retailnexus.sql-stats.warn-jdbc-time:PT1S}") Duration warnJdbcTime) {
+        this.headers = headers;
+        this.warnStatements = warnStatements;
+        this.warnJdbcTime = warnJdbcTime;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (SqlStats.Scope scope = SqlStats.open()) {
+            HeaderWritingResponse wrapped = headers ? new HeaderWritingResponse(response, scope) : null;
+            chain.doFilter(request, wrapped != null ? wrapped : response);
+            if (wrapped != null) wrapped.writeHeaders();
+            SqlStats.Snapshot stats = scope.snapshot();
+            if (stats.statements() > warnStatements || stats.jdbcNanos() > warnJdbcTime.toNanos()) {
+                log.warn("{} {}: {}", request.getMethod(), request.getRequestURI(), stats);
+            } else if (log.isDebugEnabled()) {
+                log.debug("{} {}: {}", request.getMethod(), request.getRequestURI(), stats);
+            }
+        }
+    }
+
+    /** Adds the headers just before the response commits, or after the chain if it has not committed yet. */
+    private static final class HeaderWritingResponse extends OnCommittedResponseWrapper {
+
+        private final SqlStats.Scope scope;
+        private boolean written;
+
+        HeaderWritingResponse(HttpServletResponse response, SqlStats.Scope scope) {
+            super(response);
+            this.scope = scope;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeaders();
+        }
+
+        void writeHeaders() {
+            if (written) return;
+            written = true;
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            if (response.isCommitted()) return;
+            SqlStats.Snapshot stats = scope.snapshot();
+            response.setHeader("X-SQL-Statements", String.valueOf(stats.statements()));
+            response.setHeader("X-SQL-Rows", String.valueOf(stats.rows()));
+            response.setHeader("X-SQL-Time-Ms", String.valueOf(stats.jdbcMillis()));
+        }
+    }
+}
@@ -1,15 +1,12 @@
 package com.retailnexus.controller;
 
-import com.retailnexus.entity.Product;
 import com.retailnexus.entity.Sale;
-import com.retailnexus.entity.User;
 
 import java.math.BigDecimal;
-import com.retailnexus.service.BatchService;
-import com.retailnexus.service.ProductService;
+import com.retailnexus.service.AuthenticatedUser;
+import com.retailnexus.service.CartValidationException;
 import com.retailnexus.service.SaleService;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -17,41 +14,26 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 @Controller
 @RequestMapping("/billing")
 public class BillingController {
 
-    private final ProductService productService;
-    private final BatchService batchService;
     private final SaleService saleService;
-    private final com.retailnexus.repository.UserRepository userRepository;
 
-    public BillingController(ProductService productService, BatchService batchService,
-                              SaleService saleService,
-                              com.retailnexus.repository.UserRepository userRepository) {
-        this.productService = productService;
-        this.batchService = batchService;
+    public BillingController(SaleService saleService) {
         this.saleService = saleService;
-        this.userRepository = userRepository;
     }
 
+    /** Products and stock are not rendered here: the page loads them from {@code /api/catalog} (see CatalogApiController). */
     @GetMapping
-    public String billing(Model model) {
-        List<Product> products = productService.findAll();
-        model.addAttribute("products", products);
-        java.util.Map<Long, Integer> stockByProduct = new java.util.HashMap<>();
-        for (Product p : products) {
-            stockByProduct.put(p.getId(), batchService.getTotalStock(p));
-        }
-        model.addAttribute("stockByProduct", stockByProduct);
+    public String billing() {
         return "billing/index";
     }
 
     @GetMapping("/invoice/{id}")
     public String invoice(@PathVariable Long id, Model model) {
-        Sale sale = saleService.findById(id).orElseThrow();
+        Sale sale = saleService.findByIdWithItems(id).orElseThrow();
         model.addAttribute("sale", sale);
         return "billing/invoice";
     }
@@ -59,10 +41,10 @@ public class BillingController {
     @PostMapping("/complete")
     public String complete(@RequestParam("items") String itemsJson,
                            @RequestParam(value = "paymentMethod", defaultValue = "CASH") String paymentMethodStr,
-                           @AuthenticationPrincipal UserDetails userDetails,
+                           @AuthenticationPrincipal AuthenticatedUser principal,
                            RedirectAttributes ra) {
-        List<SaleService.CartItem> cart = parseCart(itemsJson);
-        if (cart.isEmpty()) {
+        List<SaleService.CheckoutLine> lines = parseCart(itemsJson);
+        if (lines.isEmpty()) {
             ra.addFlashAttribute("error", "Cart is empty.");
             return "redirect:/billing";
         }
@@ -70,21 +52,33 @@ public class BillingController {
         try {
             method = Sale.PaymentMethod.valueOf(paymentMethodStr.toUpperCase().replace(" ", "_"));
         } catch (Exception ignored) {}
-        User user = userRepository.findByUsername(userDetails.getUsername()).orElse(null);
-        Sale sale = saleService.createSale(cart, user, method);
+        Sale sale;
+        try {
+            sale = saleService.checkout(lines, principal.getUserId(), method);
+        } catch (CartValidationException e) {
+            ra.addFlashAttribute("error", String.join(" ", e.getErrors()));
+            return "redirect:/billing";
+        }
         ra.addFlashAttribute("saleId", sale.getId());
         return "redirect:/billing/invoice/" + sale.getId();
     }
 
-    private List<SaleService.CartItem> parseCart(String itemsJson) {
-        List<SaleService.CartItem> cart = new ArrayList<>();
-        if (itemsJson == null || itemsJson.isBlank()) return cart;
+    /**
+     * Parse the form's {@code id:qty:price:gst;...} cart; malformed lines are skipped as before. Static and
+     * package-private so the JMH benchmarks (src/jmh) can call it.
+     */
+    static List<SaleService.CheckoutLine> parseCart(String itemsJson) {
+        List<SaleService.CheckoutLine> lines = new ArrayList<>();
+        if (itemsJson == null || itemsJson.isBlank()) return lines;
         for (String part : itemsJson.split(";")) {
             String[] kv = part.split(":");
             if (kv.length < 2) continue;
-            Long productId = Long.parseLong(kv[0]);
+            Long productId;
             BigDecimal qty;
-            try { qty = new BigDecimal(kv[1].trim()); } catch (Exception e) { continue; }
+            try {
+                productId = Long.parseLong(kv[0].trim());
+                qty = new BigDecimal(kv[1].trim());
+            } catch (Exception e) { continue; }
             if (qty.compareTo(BigDecimal.ZERO) <= 0) continue;
             BigDecimal unitPrice = null;
             if (kv.length >= 3 && kv[2] != null && !kv[2].isBlank()) {
@@ -94,17 +88,9 @@ public class BillingController {
             if (kv.length >= 4 && kv[3] != null && !kv[3].isBlank()) {
                 try { gstPercent = new BigDecimal(kv[3]); } catch (Exception ignored) {}
             }
-            Optional<Product> opt = productService.findById(productId);
-            if (opt.isEmpty()) continue;
-            Product p = opt.get();
-            SaleService.CartItem item = new SaleService.CartItem();
-            item.setProduct(p);
-            item.setQuantity(qty);
-            item.setUnitPrice(unitPrice);
-            item.setGstPercent(gstPercent);
-            cart.add(item);
+            lines.add(new SaleService.CheckoutLine(productId, qty, unitPrice, gstPercent));
         }
-        return cart;
+        return lines;
     }
 
     public static class CartEntry {
@@ -0,0 +1,34 @@
+package com.retailnexus.controller;
+
+import com.retailnexus.service.CacheStatsService;
+import com.retailnexus.service.CacheStatsService.CacheStats;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Cache statistics for operators (admins only, as all of {@code /admin/**}): {@code GET /admin/cache-stats}
+ * returns hit/miss/put counts per region; {@code DELETE} resets the counters (needs the CSRF token).
+ */
+@RestController
+@RequestMapping("/admin/cache-stats")
+public class CacheStatsController {
+
+    private final CacheStatsService cacheStatsService;
+
+    public CacheStatsController(CacheStatsService cacheStatsService) {
+        this.cacheStatsService = cacheStatsService;
+    }
+
+    @GetMapping
+    public CacheStats stats() {
+        return cacheStatsService.snapshot();
+    }
+
+    @DeleteMapping
+    public CacheStats reset() {
+        cacheStatsService.reset();
+        return cacheStatsService.snapshot();
+    }
+}
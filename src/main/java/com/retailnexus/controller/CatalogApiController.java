@@ -0,0 +1,52 @@
+package com.retailnexus.controller;
+
+import com.retailnexus.service.CatalogSyncService;
+import com.retailnexus.service.CatalogSyncService.CatalogDelta;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Catalog sync for billing tills. {@code GET /api/catalog?since=N} returns products and stock changed after
+ * version N (the full catalog without {@code since}); the ETag is the catalog version, so a till that sends it
+ * back in {@code If-None-Match} gets an empty 304 while nothing has changed.
+ */
+@RestController
+@RequestMapping("/api/catalog")
+public class CatalogApiController {
+
+    private final CatalogSyncService catalogSyncService;
+
+    public CatalogApiController(CatalogSyncService catalogSyncService) {
+        this.catalogSyncService = catalogSyncService;
+    }
+
+    @GetMapping
+    public ResponseEntity<CatalogDelta> catalog(@RequestParam(required = false) Long since,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String current = etag(catalogSyncService.currentVersion());
+        if (ifNoneMatch != null && matches(ifNoneMatch, current)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current).build();
+        }
+        CatalogDelta delta = catalogSyncService.changesSince(since);
+        return ResponseEntity.ok().eTag(etag(delta.version())).body(delta);
+    }
+
+    private static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag) || tag.equals("*")) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,64 @@
+package com.retailnexus.controller;
+
+import com.retailnexus.entity.Sale;
+import com.retailnexus.service.AuthenticatedUser;
+import com.retailnexus.service.CartValidationException;
+import com.retailnexus.service.Invoice;
+import com.retailnexus.service.SaleService;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON checkout for tills: {@code POST /api/checkout} with
+ * {@code {"paymentMethod":"UPI","items":[{"productId":1,"quantity":2,"unitPrice":null,"gstPercent":null}]}}.
+ * Responds 201 with the invoice, 400 with {@code {"errors":[...]}} if any line is invalid (nothing is sold), or
+ * 409 if the stock lock could not be taken in time (safe to retry). {@code POST /api/checkout/quote} takes the
+ * same body and returns the priced cart without selling it. Both need the session's CSRF token in
+ * {@code X-CSRF-TOKEN}.
+ */
+@RestController
+@RequestMapping("/api/checkout")
+public class CheckoutApiController {
+
+    private final SaleService saleService;
+
+    public CheckoutApiController(SaleService saleService) {
+        this.saleService = saleService;
+    }
+
+    public record CheckoutRequest(Sale.PaymentMethod paymentMethod, List<SaleService.CheckoutLine> items) {}
+
+    @PostMapping
+    public ResponseEntity<Invoice> checkout(@RequestBody CheckoutRequest request,
+                                            @AuthenticationPrincipal AuthenticatedUser principal) {
+        Invoice invoice = saleService.checkoutInvoice(request.items(), principal.getUserId(), principal.getUsername(),
+            request.paymentMethod());
+        return ResponseEntity.created(URI.create("/billing/invoice/" + invoice.saleId())).body(invoice);
+    }
+
+    @PostMapping("/quote")
+    public SaleService.Quote quote(@RequestBody CheckoutRequest request) {
+        return saleService.quote(request.items());
+    }
+
+    @ExceptionHandler(CartValidationException.class)
+    public ResponseEntity<Map<String, List<String>>> invalidCart(CartValidationException e) {
+        return ResponseEntity.badRequest().body(Map.of("errors", e.getErrors()));
+    }
+
+    @ExceptionHandler(CannotAcquireLockException.class)
+    public ResponseEntity<Map<String, List<String>>> lockTimeout(CannotAcquireLockException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("errors", List.of(e.getMessage())));
+    }
+}
@@ -1,7 +1,7 @@
 package com.retailnexus.controller;
 
-import com.retailnexus.service.DashboardService;
-import com.retailnexus.service.RestockSuggestionService;
+import com.retailnexus.service.DashboardSnapshot;
+import com.retailnexus.service.DashboardSnapshotService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,36 +15,35 @@ import java.util.stream.Collectors;
 @Controller
 public class DashboardController {
 
-    private final DashboardService dashboardService;
-    private final RestockSuggestionService restockSuggestionService;
+    private final DashboardSnapshotService dashboardSnapshotService;
 
-    public DashboardController(DashboardService dashboardService, RestockSuggestionService restockSuggestionService) {
-        this.dashboardService = dashboardService;
-        this.restockSuggestionService = restockSuggestionService;
+    public DashboardController(DashboardSnapshotService dashboardSnapshotService) {
+        this.dashboardSnapshotService = dashboardSnapshotService;
     }
 
     @GetMapping
     public String dashboard(Model model) {
-        model.addAttribute("totalSalesToday", dashboardService.totalSalesToday());
-        model.addAttribute("monthlyRevenue", dashboardService.monthlyRevenue());
-        model.addAttribute("totalProfit", dashboardService.totalProfit());
-        model.addAttribute("lowStockCount", dashboardService.lowStockCount());
-        model.addAttribute("nearExpiryCount", dashboardService.nearExpiryCount());
-        model.addAttribute("deadStockCount", dashboardService.deadStockCount());
-
-        Map<String, BigDecimal> trend = dashboardService.monthlySalesTrend(6);
+        DashboardSnapshot snapshot = dashboardSnapshotService.current();
+        model.addAttribute("totalSalesToday", snapshot.getTotalSalesToday());
+        model.addAttribute("monthlyRevenue", snapshot.getMonthlyRevenue());
+        model.addAttribute("totalProfit", snapshot.getTotalProfit());
+        model.addAttribute("lowStockCount", snapshot.getLowStockCount());
+        model.addAttribute("nearExpiryCount", snapshot.getNearExpiryCount());
+        model.addAttribute("deadStockCount", snapshot.getDeadStockCount());
+
+        Map<String, BigDecimal> trend = snapshot.getMonthlyTrend();
         model.addAttribute("monthlyLabels", trend.keySet().stream().collect(Collectors.toList()));
         model.addAttribute("monthlyData", trend.values().stream().collect(Collectors.toList()));
 
-        Map<String, BigDecimal> categorySales = dashboardService.categoryWiseSales(1);
+        Map<String, BigDecimal> categorySales = snapshot.getCategorySales();
         model.addAttribute("categoryLabels", categorySales.keySet().stream().collect(Collectors.toList()));
         model.addAttribute("categoryData", categorySales.values().stream().collect(Collectors.toList()));
 
-        Map<String, BigDecimal> profitDist = dashboardService.profitDistribution(1);
+        Map<String, BigDecimal> profitDist = snapshot.getProfitDistribution();
         model.addAttribute("profitLabels", profitDist.keySet().stream().collect(Collectors.toList()));
         model.addAttribute("profitData", profitDist.values().stream().collect(Collectors.toList()));
 
-        model.addAttribute("restockSuggestions", restockSuggestionService.getSuggestions());
+        model.addAttribute("restockSuggestions", snapshot.getRestockSuggestions());
         return "dashboard";
     }
 }
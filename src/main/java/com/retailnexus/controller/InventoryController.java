@@ -3,6 +3,7 @@ package com.retailnexus.controller;
 import com.retailnexus.entity.Product;
 import com.retailnexus.service.BatchService;
 import com.retailnexus.service.ProductService;
+import com.retailnexus.service.StockRegistry;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -16,21 +17,20 @@ public class InventoryController {
 
     private final ProductService productService;
     private final BatchService batchService;
+    private final StockRegistry stockRegistry;
 
-    public InventoryController(ProductService productService, BatchService batchService) {
+    public InventoryController(ProductService productService, BatchService batchService,
+                               StockRegistry stockRegistry) {
         this.productService = productService;
         this.batchService = batchService;
+        this.stockRegistry = stockRegistry;
     }
 
     @GetMapping
     public String list(Model model) {
         List<Product> products = productService.findAll();
         model.addAttribute("products", products);
-        java.util.Map<Long, Integer> stockByProduct = new java.util.HashMap<>();
-        for (Product p : products) {
-            stockByProduct.put(p.getId(), batchService.getTotalStock(p));
-        }
-        model.addAttribute("stockByProduct", stockByProduct);
+        model.addAttribute("stockByProduct", stockRegistry.asMap());
         return "inventory/list";
     }
 
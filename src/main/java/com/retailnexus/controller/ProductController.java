@@ -1,6 +1,7 @@
 package com.retailnexus.controller;
 
 import com.retailnexus.entity.Product;
+import com.retailnexus.service.ProductSearchIndex;
 import com.retailnexus.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.stereotype.Controller;
@@ -31,6 +32,15 @@ public class ProductController {
         return "products/list";
     }
 
+    /** JSON type-ahead for the billing and product screens, answered from the in-memory search index. */
+    @GetMapping("/suggest")
+    @ResponseBody
+    public List<ProductSearchIndex.Hit> suggest(@RequestParam(defaultValue = "") String q,
+                                                @RequestParam(required = false) String category,
+                                                @RequestParam(defaultValue = "10") int limit) {
+        return productService.suggest(q, category, Math.max(1, Math.min(limit, 500)));
+    }
+
     @GetMapping("/new")
     public String newProduct(Model model) {
         model.addAttribute("product", new Product());
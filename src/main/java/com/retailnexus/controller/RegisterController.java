@@ -2,6 +2,7 @@ package com.retailnexus.controller;
 
 import com.retailnexus.entity.User;
 import com.retailnexus.repository.UserRepository;
+import com.retailnexus.service.UserDetailsCache;
 import jakarta.validation.Valid;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
@@ -19,10 +20,13 @@ public class RegisterController {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
 
-    public RegisterController(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public RegisterController(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                              UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @GetMapping
@@ -50,6 +54,7 @@ public class RegisterController {
         user.setPassword(passwordEncoder.encode(dto.getPassword()));
         user.setRole(User.Role.CASHIER);
         userRepository.save(user);
+        userDetailsCache.removeUserFromCache(user.getUsername());
         ra.addFlashAttribute("message", "Registration successful. Please login.");
         return "redirect:/login";
     }
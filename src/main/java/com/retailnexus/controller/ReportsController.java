@@ -2,18 +2,24 @@ package com.retailnexus.controller;
 
 import com.retailnexus.entity.Sale;
 import com.retailnexus.service.PdfReportService;
+import com.retailnexus.service.ProductService;
 import com.retailnexus.service.ReportService;
 import com.retailnexus.service.ReportService.ProductStockDto;
+import com.retailnexus.service.SalesExportService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 @Controller
@@ -22,53 +28,93 @@ public class ReportsController {
 
     private final ReportService reportService;
     private final PdfReportService pdfReportService;
-    private final com.retailnexus.repository.SaleRepository saleRepository;
+    private final SalesExportService salesExportService;
+    private final ProductService productService;
 
     public ReportsController(ReportService reportService, PdfReportService pdfReportService,
-                             com.retailnexus.repository.SaleRepository saleRepository) {
+                             SalesExportService salesExportService, ProductService productService) {
         this.reportService = reportService;
         this.pdfReportService = pdfReportService;
-        this.saleRepository = saleRepository;
+        this.salesExportService = salesExportService;
+        this.productService = productService;
     }
 
     @GetMapping
-    public String index() {
+    public String index(Model model) {
+        LocalDate today = LocalDate.now();
+        model.addAttribute("exportFrom", today.withDayOfMonth(1));
+        model.addAttribute("exportTo", today);
+        model.addAttribute("categories", productService.findAllCategories());
+        model.addAttribute("paymentMethods", Sale.PaymentMethod.values());
         return "reports/index";
     }
 
+    /** Stream sales ({@code /export/sales}) or sale lines ({@code /export/items}) as CSV or NDJSON. */
+    @GetMapping("/export/{dataset}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable String dataset,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                        @RequestParam(required = false) String category,
+                                                        @RequestParam(required = false) Sale.PaymentMethod paymentMethod,
+                                                        @RequestParam(defaultValue = "csv") String format) {
+        SalesExportService.Format fmt;
+        try {
+            fmt = SalesExportService.Format.from(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format: " + format);
+        }
+        if (to.isBefore(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'to' is before 'from'");
+        }
+        SalesExportService.Filter filter = new SalesExportService.Filter(from, to, category, paymentMethod);
+        StreamingResponseBody body = switch (dataset) {
+            case "sales" -> out -> salesExportService.exportSales(filter, fmt, out);
+            case "items" -> out -> salesExportService.exportItems(filter, fmt, out);
+            default -> throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        };
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=" + dataset + "-" + from + "-" + to + "." + fmt.getExtension())
+            .contentType(MediaType.parseMediaType(fmt.getMediaType() + ";charset=UTF-8"))
+            .body(body);
+    }
+
     @GetMapping("/daily")
-    public String daily(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date, Model model) {
+    public String daily(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                        @RequestParam(required = false) String older, @RequestParam(required = false) String newer,
+                        Model model) {
         LocalDate d = date != null ? date : LocalDate.now();
-        List<Sale> sales = reportService.dailySalesReport(d);
-        BigDecimal total = saleRepository.totalSalesByDate(d);
+        BigDecimal total = reportService.dailyTotal(d);
         model.addAttribute("date", d);
-        model.addAttribute("sales", sales);
+        model.addAttribute("listing", listing(d, d, older, newer));
         model.addAttribute("total", total != null ? total : BigDecimal.ZERO);
         return "reports/daily";
     }
 
     @GetMapping(value = "/daily/pdf", produces = MediaType.APPLICATION_PDF_VALUE)
-    public ResponseEntity<byte[]> dailyPdf(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        List<Sale> sales = reportService.dailySalesReport(date);
-        BigDecimal total = saleRepository.totalSalesByDate(date);
-        byte[] pdf = pdfReportService.generateSalesReportPdf(date, sales, total);
-        return ResponseEntity.ok()
-            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=daily-sales-" + date + ".pdf")
-            .contentType(MediaType.APPLICATION_PDF)
-            .body(pdf);
+    public ResponseEntity<StreamingResponseBody> dailyPdf(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return pdf("daily-sales-" + date + ".pdf", out -> pdfReportService.writeDailySalesReport(date, out));
     }
 
     @GetMapping("/monthly")
-    public String monthly(@RequestParam(required = false) Integer year, @RequestParam(required = false) Integer month, Model model) {
+    public String monthly(@RequestParam(required = false) Integer year, @RequestParam(required = false) Integer month,
+                          @RequestParam(required = false) String older, @RequestParam(required = false) String newer,
+                          Model model) {
         int y = year != null ? year : LocalDate.now().getYear();
         int m = month != null ? month : LocalDate.now().getMonthValue();
-        List<Sale> sales = reportService.monthlyReport(y, m);
+        YearMonth ym = YearMonth.of(y, m);
         model.addAttribute("year", y);
         model.addAttribute("month", m);
-        model.addAttribute("sales", sales);
+        model.addAttribute("listing", listing(ym.atDay(1), ym.atEndOfMonth(), older, newer));
         return "reports/monthly";
     }
 
+    @GetMapping(value = "/monthly/pdf", produces = MediaType.APPLICATION_PDF_VALUE)
+    public ResponseEntity<StreamingResponseBody> monthlyPdf(@RequestParam int year, @RequestParam int month) {
+        YearMonth ym = YearMonth.of(year, month);
+        return pdf("monthly-sales-" + ym + ".pdf", out -> pdfReportService.writeMonthlySalesReport(ym, out));
+    }
+
     @GetMapping("/low-stock")
     public String lowStock(@RequestParam(defaultValue = "10") int threshold, Model model) {
         List<ProductStockDto> items = reportService.lowStockReport(threshold);
@@ -77,9 +123,36 @@ public class ReportsController {
         return "reports/low-stock";
     }
 
+    @GetMapping(value = "/low-stock/pdf", produces = MediaType.APPLICATION_PDF_VALUE)
+    public ResponseEntity<StreamingResponseBody> lowStockPdf(@RequestParam(defaultValue = "10") int threshold) {
+        return pdf("low-stock.pdf", out -> pdfReportService.writeLowStockReport(threshold, out));
+    }
+
     @GetMapping("/dead-stock")
     public String deadStock(Model model) {
         model.addAttribute("items", reportService.deadStockReport());
         return "reports/dead-stock";
     }
+
+    @GetMapping(value = "/dead-stock/pdf", produces = MediaType.APPLICATION_PDF_VALUE)
+    public ResponseEntity<StreamingResponseBody> deadStockPdf() {
+        return pdf("dead-stock.pdf", pdfReportService::writeDeadStockReport);
+    }
+
+    /** Page of the sales listing after the {@code older} or {@code newer} page-link cursor (newest page if neither). */
+    private ReportService.SalesListing listing(LocalDate from, LocalDate to, String older, String newer) {
+        ReportService.SaleCursor newerCursor = ReportService.SaleCursor.parse(newer);
+        if (newerCursor != null) {
+            return reportService.salesListing(from, to, newerCursor, true);
+        }
+        return reportService.salesListing(from, to, ReportService.SaleCursor.parse(older), false);
+    }
+
+    /** PDF download rendered on an async thread straight into the response. */
+    private static ResponseEntity<StreamingResponseBody> pdf(String filename, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
+            .contentType(MediaType.APPLICATION_PDF)
+            .body(body);
+    }
 }
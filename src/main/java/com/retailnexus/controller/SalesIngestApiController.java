@@ -0,0 +1,60 @@
+package com.retailnexus.controller;
+
+import com.retailnexus.service.AuthenticatedUser;
+import com.retailnexus.service.SaleIngestService;
+import com.retailnexus.service.SaleIngestService.OfflineSale;
+import com.retailnexus.service.SaleIngestService.Result;
+import com.retailnexus.service.SaleIngestService.Status;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline till backlog: {@code POST /api/sales/batch} with
+ * {@code {"sales":[{"idempotencyKey":"...","saleDate":"2024-05-01T10:15:00","paymentMethod":"CASH","items":[...]}]}}
+ * (items as for {@code /api/checkout}). Always 200 with one result per sale, in order: CREATED, DUPLICATE (key
+ * already ingested for this user; the original sale id is returned and stock is not touched again) or REJECTED
+ * with errors, which includes a key another user already pushed.
+ * A failed push can therefore simply be sent again. Needs the session's CSRF token in {@code X-CSRF-TOKEN}.
+ */
+@RestController
+@RequestMapping("/api/sales/batch")
+public class SalesIngestApiController {
+
+    static final int MAX_BATCH = 5000;
+
+    private final SaleIngestService saleIngestService;
+
+    public SalesIngestApiController(SaleIngestService saleIngestService) {
+        this.saleIngestService = saleIngestService;
+    }
+
+    public record BatchRequest(List<OfflineSale> sales) {}
+
+    public record BatchResponse(int created, int duplicate, int rejected, List<Result> results) {}
+
+    @PostMapping
+    public ResponseEntity<?> ingest(@RequestBody BatchRequest request, @AuthenticationPrincipal AuthenticatedUser principal) {
+        if (request.sales() == null || request.sales().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("errors", List.of("No sales to ingest.")));
+        }
+        if (request.sales().size() > MAX_BATCH) {
+            return ResponseEntity.badRequest().body(Map.of("errors",
+                List.of("At most " + MAX_BATCH + " sales per request; split the backlog.")));
+        }
+        List<Result> results = saleIngestService.ingest(request.sales(), principal.getUserId());
+        int created = 0, duplicate = 0, rejected = 0;
+        for (Result r : results) {
+            if (r.status() == Status.CREATED) created++;
+            else if (r.status() == Status.DUPLICATE) duplicate++;
+            else rejected++;
+        }
+        return ResponseEntity.ok(new BatchResponse(created, duplicate, rejected, results));
+    }
+}
@@ -1,9 +1,8 @@
 package com.retailnexus.controller;
 
-import com.retailnexus.entity.User;
 import com.retailnexus.repository.UserRepository;
+import com.retailnexus.service.AuthenticatedUser;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,12 +19,12 @@ public class UserController {
     }
 
     @GetMapping
-    public String profile(@AuthenticationPrincipal UserDetails userDetails, Model model) {
-        if (userDetails != null) {
-            userRepository.findByUsername(userDetails.getUsername()).ifPresent(user ->
+    public String profile(@AuthenticationPrincipal AuthenticatedUser principal, Model model) {
+        if (principal != null) {
+            userRepository.findById(principal.getUserId()).ifPresent(user ->
                 model.addAttribute("currentUser", user)
             );
-            model.addAttribute("username", userDetails.getUsername());
+            model.addAttribute("username", principal.getUsername());
         }
         return "user/profile";
     }
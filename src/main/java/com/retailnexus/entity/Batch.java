@@ -10,7 +10,8 @@ import java.util.Objects;
 public class Batch {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "batches_seq")
+    @SequenceGenerator(name = "batches_seq", sequenceName = "batches_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -0,0 +1,52 @@
+package com.retailnexus.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/** Store-wide sales totals for one calendar day, maintained by SalesRollupService. */
+@Entity
+@Table(name = "daily_sales_summary")
+public class DailySalesSummary {
+
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Column(nullable = false, precision = 16, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 16, scale = 2)
+    private BigDecimal gst = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 16, scale = 2)
+    private BigDecimal profit = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private Long saleCount = 0L;
+
+    public LocalDate getSalesDate() { return salesDate; }
+    public void setSalesDate(LocalDate salesDate) { this.salesDate = salesDate; }
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+    public BigDecimal getGst() { return gst; }
+    public void setGst(BigDecimal gst) { this.gst = gst; }
+    public BigDecimal getProfit() { return profit; }
+    public void setProfit(BigDecimal profit) { this.profit = profit; }
+    public Long getSaleCount() { return saleCount; }
+    public void setSaleCount(Long saleCount) { this.saleCount = saleCount; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DailySalesSummary that = (DailySalesSummary) o;
+        return Objects.equals(salesDate, that.salesDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(salesDate);
+    }
+}
@@ -0,0 +1,35 @@
+package com.retailnexus.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/** Idempotency record of a sale pushed by a till's offline queue; the unique key makes replays no-ops. */
+@Entity
+@Table(name = "ingested_sales",
+       indexes = @Index(name = "ux_ingested_sales_key", columnList = "idempotencyKey", unique = true))
+public class IngestedSale {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingested_sales_seq")
+    @SequenceGenerator(name = "ingested_sales_seq", sequenceName = "ingested_sales_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String idempotencyKey;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "sale_id", nullable = false)
+    private Sale sale;
+
+    @Column(nullable = false)
+    private LocalDateTime ingestedAt = LocalDateTime.now();
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+    public Sale getSale() { return sale; }
+    public void setSale(Sale sale) { this.sale = sale; }
+    public LocalDateTime getIngestedAt() { return ingestedAt; }
+    public void setIngestedAt(LocalDateTime ingestedAt) { this.ingestedAt = ingestedAt; }
+}
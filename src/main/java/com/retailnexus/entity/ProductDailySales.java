@@ -0,0 +1,79 @@
+package com.retailnexus.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/** Quantity, revenue and profit sold per product per calendar day, maintained by SalesRollupService. */
+@Entity
+@Table(name = "product_daily_sales", indexes = @Index(name = "idx_product_daily_sales_date", columnList = "sales_date"))
+@IdClass(ProductDailySales.Key.class)
+public class ProductDailySales {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Column(nullable = false, precision = 14, scale = 3)
+    private BigDecimal quantity = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 16, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 16, scale = 2)
+    private BigDecimal profit = BigDecimal.ZERO;
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public LocalDate getSalesDate() { return salesDate; }
+    public void setSalesDate(LocalDate salesDate) { this.salesDate = salesDate; }
+    public BigDecimal getQuantity() { return quantity; }
+    public void setQuantity(BigDecimal quantity) { this.quantity = quantity; }
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+    public BigDecimal getProfit() { return profit; }
+    public void setProfit(BigDecimal profit) { this.profit = profit; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductDailySales that = (ProductDailySales) o;
+        return Objects.equals(productId, that.productId) && Objects.equals(salesDate, that.salesDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(productId, salesDate);
+    }
+
+    public static class Key implements Serializable {
+        private Long productId;
+        private LocalDate salesDate;
+
+        public Key() {}
+        public Key(Long productId, LocalDate salesDate) {
+            this.productId = productId;
+            this.salesDate = salesDate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return Objects.equals(productId, key.productId) && Objects.equals(salesDate, key.salesDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, salesDate);
+        }
+    }
+}
@@ -8,11 +8,16 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
-@Table(name = "sales")
+@Table(name = "sales", indexes = {
+    @Index(name = "idx_sales_date_id", columnList = "saleDate, id"),
+    // H2 does not scan indexes backwards; newest-first report listings need their own index.
+    @Index(name = "idx_sales_date_id_desc", columnList = "saleDate DESC, id DESC")
+})
 public class Sale {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_seq")
+    @SequenceGenerator(name = "sales_seq", sequenceName = "sales_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -2,8 +2,12 @@ package com.retailnexus.repository;
 
 import com.retailnexus.entity.Batch;
 import com.retailnexus.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -14,15 +18,36 @@ public interface BatchRepository extends JpaRepository<Batch, Long> {
     @Query("SELECT b FROM Batch b WHERE b.product = :product AND b.quantity > 0 ORDER BY b.expiryDate ASC")
     List<Batch> findAvailableBatchesByProductFifo(Product product);
 
-    @Query("SELECT SUM(b.quantity) FROM Batch b WHERE b.product = :product AND b.quantity > 0")
-    Integer sumQuantityByProduct(Product product);
-
     @Query("SELECT SUM(b.quantity) FROM Batch b WHERE b.product = :product")
     Integer sumQuantityByProductAll(Product product);
 
+    /** Rows of [productId, sum of positive batch quantities], one per product that has stock. */
+    @Query("SELECT b.product.id, SUM(b.quantity) FROM Batch b WHERE b.quantity > 0 GROUP BY b.product.id")
+    List<Object[]> sumQuantityGroupedByProduct();
+
+    /** Rows of [productId, sum of all batch quantities], one per product that has batches. */
+    @Query("SELECT b.product.id, SUM(b.quantity) FROM Batch b GROUP BY b.product.id")
+    List<Object[]> sumQuantityAllGroupedByProduct();
+
+    /** Rows of [id, productId, batchNumber, expiryDate, quantity], one per batch (for {@code BatchAllocator}). */
+    @Query("SELECT b.id, b.product.id, b.batchNumber, b.expiryDate, b.quantity FROM Batch b")
+    List<Object[]> findAllocationRows();
+
+    /**
+     * Atomic in-database decrement; returns the number of rows changed (0 if the batch does not exist). Does not
+     * flush the session first, so a batch created in the same transaction must have been flushed.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("UPDATE Batch b SET b.quantity = b.quantity - :qty WHERE b.id = :id")
+    int deductQuantity(Long id, int qty);
+
     @Query("SELECT b FROM Batch b WHERE b.quantity > 0 AND b.expiryDate BETWEEN :from AND :to ORDER BY b.expiryDate")
     List<Batch> findNearExpiry(LocalDate from, LocalDate to);
 
+    @Query("SELECT COUNT(b) FROM Batch b WHERE b.quantity > 0 AND b.expiryDate BETWEEN :from AND :to")
+    long countNearExpiry(LocalDate from, LocalDate to);
+
     @Query("SELECT b FROM Batch b WHERE b.quantity > 0 ORDER BY b.expiryDate")
     List<Batch> findAllWithStock();
 }
@@ -0,0 +1,7 @@
+package com.retailnexus.repository;
+
+import java.math.BigDecimal;
+
+/** Revenue (sum of sale item totals) and profit of one product category over a period. */
+public record CategorySalesRow(String category, BigDecimal revenue, BigDecimal profit) {
+}
@@ -0,0 +1,37 @@
+package com.retailnexus.repository;
+
+import com.retailnexus.entity.DailySalesSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailySalesSummaryRepository extends JpaRepository<DailySalesSummary, LocalDate> {
+
+    /**
+     * Atomic increment of one day's totals by {@code sales} sales; returns 0 if the day's row does not exist yet.
+     * Does not flush the session first: day rows are created in their own transaction (SalesRollupService.ensureDay).
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("UPDATE DailySalesSummary d SET d.revenue = d.revenue + :revenue, d.gst = d.gst + :gst, " +
+           "d.profit = d.profit + :profit, d.saleCount = d.saleCount + :sales WHERE d.salesDate = :date")
+    int addSales(LocalDate date, BigDecimal revenue, BigDecimal gst, BigDecimal profit, int sales);
+
+    @Query("SELECT COALESCE(SUM(d.revenue), 0) FROM DailySalesSummary d WHERE d.salesDate >= :from AND d.salesDate <= :to")
+    BigDecimal totalRevenueBetween(LocalDate from, LocalDate to);
+
+    @Query("SELECT COALESCE(SUM(d.profit), 0) FROM DailySalesSummary d WHERE d.salesDate >= :from AND d.salesDate <= :to")
+    BigDecimal totalProfitBetween(LocalDate from, LocalDate to);
+
+    /** Revenue per calendar month on or after {@code from}; months without sales are absent. */
+    @Query("SELECT new com.retailnexus.repository.MonthlySalesRow(YEAR(d.salesDate), MONTH(d.salesDate), SUM(d.revenue)) " +
+           "FROM DailySalesSummary d WHERE d.salesDate >= :from " +
+           "GROUP BY YEAR(d.salesDate), MONTH(d.salesDate)")
+    List<MonthlySalesRow> revenueByMonthSince(LocalDate from);
+}
@@ -0,0 +1,16 @@
+package com.retailnexus.repository;
+
+import com.retailnexus.entity.IngestedSale;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface IngestedSaleRepository extends JpaRepository<IngestedSale, Long> {
+
+    /** Rows of [idempotencyKey, saleId, cashierId] for the given keys that were already ingested; cashierId may be null. */
+    @Query("SELECT i.idempotencyKey, s.id, u.id FROM IngestedSale i JOIN i.sale s LEFT JOIN s.soldBy u " +
+           "WHERE i.idempotencyKey IN :keys")
+    List<Object[]> findSaleIdsByKeys(Collection<String> keys);
+}
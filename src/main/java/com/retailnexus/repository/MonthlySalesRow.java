@@ -0,0 +1,7 @@
+package com.retailnexus.repository;
+
+import java.math.BigDecimal;
+
+/** Sales total of one calendar month. */
+public record MonthlySalesRow(Integer year, Integer month, BigDecimal revenue) {
+}
@@ -0,0 +1,40 @@
+package com.retailnexus.repository;
+
+import com.retailnexus.entity.ProductDailySales;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ProductDailySalesRepository extends JpaRepository<ProductDailySales, ProductDailySales.Key> {
+
+    /**
+     * Atomic increment of one product-day row; returns 0 if the row does not exist yet. Does not flush the session
+     * first, so a row created in the same transaction must have been flushed.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("UPDATE ProductDailySales r SET r.quantity = r.quantity + :quantity, r.revenue = r.revenue + :revenue, " +
+           "r.profit = r.profit + :profit WHERE r.productId = :productId AND r.salesDate = :date")
+    int addSale(Long productId, LocalDate date, BigDecimal quantity, BigDecimal revenue, BigDecimal profit);
+
+    /** Rows of [Product, total quantity] for products sold on or after {@code since}. */
+    @Query("SELECT p, SUM(r.quantity) FROM ProductDailySales r JOIN Product p ON p.id = r.productId " +
+           "WHERE r.salesDate >= :since GROUP BY p")
+    List<Object[]> findSalesByProductSince(LocalDate since);
+
+    /** Ids of products sold on or after {@code since}. */
+    @Query("SELECT DISTINCT r.productId FROM ProductDailySales r WHERE r.salesDate >= :since")
+    List<Long> findProductIdsSoldSince(LocalDate since);
+
+    /** Revenue and profit per product category on or after {@code since}, in one GROUP BY. */
+    @Query("SELECT new com.retailnexus.repository.CategorySalesRow(p.category, SUM(r.revenue), SUM(r.profit)) " +
+           "FROM ProductDailySales r JOIN Product p ON p.id = r.productId " +
+           "WHERE r.salesDate >= :since GROUP BY p.category ORDER BY p.category")
+    List<CategorySalesRow> totalsByCategorySince(LocalDate since);
+}
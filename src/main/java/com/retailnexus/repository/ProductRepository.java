@@ -1,18 +1,28 @@
 package com.retailnexus.repository;
 
 import com.retailnexus.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.List;
 import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+    /** Query-cached; any write to products invalidates it. */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "product-queries")
+    })
     List<Product> findAllByOrderByNameAsc();
     Optional<Product> findByBarcode(String barcode);
     List<Product> findByCategoryOrderByNameAsc(String category);
-    List<Product> findByNameContainingIgnoreCaseOrderByNameAsc(String name);
-    List<Product> findByCategoryContainingIgnoreCaseOrNameContainingIgnoreCase(String category, String name);
 
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "product-queries")
+    })
     @Query("SELECT DISTINCT p.category FROM Product p ORDER BY p.category")
     List<String> findAllDistinctCategories();
 }
@@ -0,0 +1,14 @@
+package com.retailnexus.repository;
+
+import com.retailnexus.entity.Product;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+    /**
+     * Like {@code findAllById}, but served from the second-level cache where possible: only ids not cached are
+     * loaded, in one IN query. Missing ids are skipped; order is not guaranteed.
+     */
+    List<Product> findAllByIdCached(Collection<Long> ids);
+}
@@ -0,0 +1,39 @@
+package com.retailnexus.repository;
+
+import com.retailnexus.entity.Product;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    ProductRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Product> findAllByIdCached(Collection<Long> ids) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        List<Product> products = new ArrayList<>(ids.size());
+        List<Long> uncached = new ArrayList<>();
+        for (Long id : ids) {
+            Product cached = cache.contains(Product.class, id) ? entityManager.find(Product.class, id) : null;
+            if (cached != null) {
+                products.add(cached);
+            } else {
+                uncached.add(id);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            products.addAll(entityManager.createQuery("SELECT p FROM Product p WHERE p.id IN :ids", Product.class)
+                .setParameter("ids", uncached)
+                .getResultList());
+        }
+        return products;
+    }
+}
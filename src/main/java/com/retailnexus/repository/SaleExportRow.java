@@ -0,0 +1,11 @@
+package com.retailnexus.repository;
+
+import com.retailnexus.entity.Sale;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** One sale as exported by /reports/export/sales. */
+public record SaleExportRow(Long saleId, LocalDateTime saleDate, Sale.PaymentMethod paymentMethod, String cashier,
+                            BigDecimal totalAmount, BigDecimal totalGst, BigDecimal totalProfit) {
+}
@@ -0,0 +1,13 @@
+package com.retailnexus.repository;
+
+import com.retailnexus.entity.Sale;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** One sale line as exported by /reports/export/items. */
+public record SaleItemExportRow(Long saleId, LocalDateTime saleDate, Sale.PaymentMethod paymentMethod,
+                                Long productId, String productName, String category, String batchNumber,
+                                BigDecimal quantity, BigDecimal unitPrice, BigDecimal gstPercent,
+                                BigDecimal gstAmount, BigDecimal totalPrice, BigDecimal profit) {
+}
@@ -1,16 +1,29 @@
 package com.retailnexus.repository;
 
 import com.retailnexus.entity.Product;
+import com.retailnexus.entity.Sale;
 import com.retailnexus.entity.SaleItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface SaleItemRepository extends JpaRepository<SaleItem, Long> {
 
-    @Query("SELECT si.product, SUM(si.quantity) FROM SaleItem si WHERE si.sale.saleDate >= :since GROUP BY si.product")
-    List<Object[]> findSalesByProductSince(LocalDateTime since);
-
     List<SaleItem> findBySaleId(Long saleId);
+
+    /** Sale lines of sales in [{@code from}, {@code to}) for export, in sale order; null filters match everything. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.retailnexus.repository.SaleItemExportRow(s.id, s.saleDate, s.paymentMethod, p.id, p.name, " +
+           "p.category, b.batchNumber, si.quantity, si.unitPrice, si.gstPercent, si.gstAmount, si.totalPrice, si.profit) " +
+           "FROM SaleItem si JOIN si.sale s JOIN si.product p JOIN si.batch b " +
+           "WHERE s.saleDate >= :from AND s.saleDate < :to " +
+           "AND (:paymentMethod IS NULL OR s.paymentMethod = :paymentMethod) " +
+           "AND (:category IS NULL OR p.category = :category) " +
+           "ORDER BY s.saleDate, s.id, si.id")
+    Stream<SaleItemExportRow> streamForExport(LocalDateTime from, LocalDateTime to, Sale.PaymentMethod paymentMethod, String category);
 }
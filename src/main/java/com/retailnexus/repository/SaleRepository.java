@@ -1,23 +1,55 @@
 package com.retailnexus.repository;
 
 import com.retailnexus.entity.Sale;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import java.math.BigDecimal;
-import java.time.LocalDate;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface SaleRepository extends JpaRepository<Sale, Long> {
 
-    @Query("SELECT COALESCE(SUM(s.totalAmount), 0) FROM Sale s WHERE CAST(s.saleDate AS date) = :date")
-    BigDecimal totalSalesByDate(LocalDate date);
+    /** Sale with its items, their products and the cashier, in one query (invoice view). */
+    @Query("SELECT s FROM Sale s LEFT JOIN FETCH s.items i LEFT JOIN FETCH i.product LEFT JOIN FETCH s.soldBy WHERE s.id = :id")
+    Optional<Sale> findWithItemsById(Long id);
 
-    @Query("SELECT COALESCE(SUM(s.totalAmount), 0) FROM Sale s WHERE s.saleDate >= :from AND s.saleDate < :to")
-    BigDecimal totalSalesBetween(LocalDateTime from, LocalDateTime to);
+    /**
+     * Keyset page of sales in [{@code from}, {@code to}) ordered by (saleDate, id), starting after the row
+     * ({@code afterDate}, {@code afterId}). Pass {@code from} and 0 for the first page.
+     */
+    @Query("SELECT new com.retailnexus.repository.SaleSummaryRow(s.id, s.saleDate, s.paymentMethod, u.username, s.totalAmount, s.totalProfit) " +
+           "FROM Sale s LEFT JOIN s.soldBy u WHERE s.saleDate >= :from AND s.saleDate < :to " +
+           "AND (s.saleDate > :afterDate OR (s.saleDate = :afterDate AND s.id > :afterId)) " +
+           "ORDER BY s.saleDate, s.id")
+    List<SaleSummaryRow> findSummariesAfter(LocalDateTime from, LocalDateTime to,
+                                            LocalDateTime afterDate, Long afterId, Pageable page);
 
-    @Query("SELECT COALESCE(SUM(s.totalProfit), 0) FROM Sale s WHERE s.saleDate >= :from AND s.saleDate < :to")
-    BigDecimal totalProfitBetween(LocalDateTime from, LocalDateTime to);
+    /**
+     * Keyset page of sales in [{@code from}, {@code to}) ordered newest first by (saleDate, id), starting before
+     * the row ({@code beforeDate}, {@code beforeId}). Pass {@code to} and {@link Long#MAX_VALUE} for the first page.
+     */
+    @Query("SELECT new com.retailnexus.repository.SaleSummaryRow(s.id, s.saleDate, s.paymentMethod, u.username, s.totalAmount, s.totalProfit) " +
+           "FROM Sale s LEFT JOIN s.soldBy u WHERE s.saleDate >= :from AND s.saleDate < :to " +
+           "AND (s.saleDate < :beforeDate OR (s.saleDate = :beforeDate AND s.id < :beforeId)) " +
+           "ORDER BY s.saleDate DESC, s.id DESC")
+    List<SaleSummaryRow> findSummariesBefore(LocalDateTime from, LocalDateTime to,
+                                             LocalDateTime beforeDate, Long beforeId, Pageable page);
 
-    List<Sale> findBySaleDateBetweenOrderBySaleDateDesc(LocalDateTime from, LocalDateTime to);
+    /**
+     * Sales in [{@code from}, {@code to}) for export, oldest first; null filters match everything. The category
+     * filter keeps sales with at least one line in that category. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.retailnexus.repository.SaleExportRow(s.id, s.saleDate, s.paymentMethod, u.username, " +
+           "s.totalAmount, s.totalGst, s.totalProfit) FROM Sale s LEFT JOIN s.soldBy u " +
+           "WHERE s.saleDate >= :from AND s.saleDate < :to " +
+           "AND (:paymentMethod IS NULL OR s.paymentMethod = :paymentMethod) " +
+           "AND (:category IS NULL OR EXISTS (SELECT 1 FROM SaleItem si WHERE si.sale = s AND si.product.category = :category)) " +
+           "ORDER BY s.saleDate, s.id")
+    Stream<SaleExportRow> streamForExport(LocalDateTime from, LocalDateTime to, Sale.PaymentMethod paymentMethod, String category);
 }
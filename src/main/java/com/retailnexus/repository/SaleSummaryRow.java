@@ -0,0 +1,11 @@
+package com.retailnexus.repository;
+
+import com.retailnexus.entity.Sale;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** Header columns of one sale, without items, for report listings. {@code cashier} is null if the user was removed. */
+public record SaleSummaryRow(Long id, LocalDateTime saleDate, Sale.PaymentMethod paymentMethod, String cashier,
+                             BigDecimal totalAmount, BigDecimal totalProfit) {
+}
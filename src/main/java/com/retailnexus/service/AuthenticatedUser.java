@@ -0,0 +1,31 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.User;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Principal of a logged-in user. Carries the user id and role taken at login, so a request can attach the
+ * cashier to a sale ({@link SaleService#cashierReference}) without looking the user up again.
+ */
+public class AuthenticatedUser extends org.springframework.security.core.userdetails.User {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long userId;
+    private final User.Role role;
+
+    public AuthenticatedUser(Long userId, String username, String password, User.Role role) {
+        super(username, password, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        this.userId = userId;
+        this.role = role;
+    }
+
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(), user.getRole());
+    }
+
+    public Long getUserId() { return userId; }
+    public User.Role getRole() { return role; }
+}
@@ -0,0 +1,301 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.Batch;
+import com.retailnexus.entity.Product;
+import com.retailnexus.repository.BatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory batches of every product, earliest expiry first, so checkout can plan which batches a whole cart is
+ * taken from without querying them (first expiry, first out). Loaded once the application is ready and kept in
+ * step by BatchService. Each batch it saves or deducts is applied when the transaction commits, before
+ * {@link ProductLockStripes} lets the next till at the same products plan. Until then, later plans in the same
+ * transaction (e.g. the next sale of an ingested chunk) see the change. A periodic pass re-reads the batches
+ * table and corrects any drift, as {@link StockRegistry} does.
+ */
+@Service
+public class BatchAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchAllocator.class);
+    private static final Slot[] NONE = new Slot[0];
+    static final Comparator<Slot> FEFO = Comparator.comparing(Slot::expiryDate).thenComparingLong(Slot::batchId);
+
+    private final BatchRepository batchRepository;
+    /** Each product's batches in {@link #FEFO} order. Arrays are never changed; an update swaps in a new one. */
+    private final ConcurrentHashMap<Long, Slot[]> byProduct = new ConcurrentHashMap<>();
+    private final AtomicLong mutations = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean loaded;
+    private volatile long lastDriftCount;
+
+    public BatchAllocator(BatchRepository batchRepository) {
+        this.batchRepository = batchRepository;
+    }
+
+    /** A batch as planned from. */
+    record Slot(long batchId, String batchNumber, LocalDate expiryDate, int quantity) {}
+
+    /**
+     * Part of a cart line taken from one batch. {@code batch} is a detached copy with id, product, number, expiry
+     * and the quantity before this cart. It can be referenced by new sale items and ledger rows, but must not
+     * be saved.
+     */
+    public record Take(Batch batch, BigDecimal quantity) {}
+
+    /**
+     * How one cart line is filled: {@code takes} from batches with stock, then {@code shortfall} sold beyond it
+     * from {@code overflow}, the product's earliest-expiring batch. {@code overflow} is null if the product has no
+     * batch at all.
+     */
+    public record LinePlan(List<Take> takes, BigDecimal shortfall, Batch overflow) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<Long, Slot[]> batches = readAll();
+        byProduct.clear();
+        byProduct.putAll(batches);
+        loaded = true;
+        log.info("Batch allocator loaded {} batches of {} products",
+            batches.values().stream().mapToInt(s -> s.length).sum(), batches.size());
+    }
+
+    /**
+     * Plan every line of {@code cart}, in order. A later line of the same product takes only what earlier lines
+     * left, counted in whole units as they will be deducted. Batches saved or deducted earlier in the current
+     * transaction are seen as changed. Reads nothing once loaded. Until then, it queries each product's batches.
+     */
+    @Transactional(readOnly = true)
+    public List<LinePlan> plan(List<SaleService.CartItem> cart) {
+        Map<Long, Slot[]> slots = new HashMap<>();
+        Map<Long, int[]> left = new HashMap<>();
+        Map<Long, Slot[]> uncommitted = uncommitted(false);
+        List<LinePlan> plans = new ArrayList<>(cart.size());
+        for (SaleService.CartItem item : cart) {
+            Product product = item.getProduct();
+            Slot[] batches = slots.computeIfAbsent(product.getId(),
+                id -> uncommitted != null && uncommitted.containsKey(id) ? uncommitted.get(id) : slots(product));
+            int[] quantities = left.computeIfAbsent(product.getId(), id -> quantities(batches));
+            plans.add(planLine(product, item.getQuantity(), batches, quantities));
+        }
+        return plans;
+    }
+
+    /** Take {@code needed} from {@code batches} in order, at most {@code left[i]} from each, moving {@code left} down. */
+    static LinePlan planLine(Product product, BigDecimal needed, Slot[] batches, int[] left) {
+        if (needed == null || needed.signum() <= 0) return new LinePlan(List.of(), BigDecimal.ZERO, null);
+        List<Take> takes = new ArrayList<>(2);
+        BigDecimal remaining = needed;
+        for (int i = 0; i < batches.length && remaining.signum() > 0; i++) {
+            if (left[i] <= 0) continue;
+            BigDecimal take = remaining.min(BigDecimal.valueOf(left[i]));
+            takes.add(new Take(detached(product, batches[i]), take));
+            // Batches hold whole units: a fractional (loose) quantity uses up the next whole unit.
+            left[i] -= take.setScale(0, RoundingMode.UP).intValue();
+            remaining = remaining.subtract(take);
+        }
+        Batch overflow = remaining.signum() > 0 && batches.length > 0 ? detached(product, batches[0]) : null;
+        return new LinePlan(takes, remaining.max(BigDecimal.ZERO), overflow);
+    }
+
+    static int[] quantities(Slot[] batches) {
+        int[] quantities = new int[batches.length];
+        for (int i = 0; i < batches.length; i++) quantities[i] = batches[i].quantity();
+        return quantities;
+    }
+
+    private Slot[] slots(Product product) {
+        if (loaded) return byProduct.getOrDefault(product.getId(), NONE);
+        return batchRepository.findByProductOrderByExpiryDateAsc(product).stream()
+            .map(BatchAllocator::slot).sorted(FEFO).toArray(Slot[]::new);
+    }
+
+    private static Batch detached(Product product, Slot slot) {
+        Batch batch = new Batch();
+        batch.setId(slot.batchId());
+        batch.setProduct(product);
+        batch.setBatchNumber(slot.batchNumber());
+        batch.setExpiryDate(slot.expiryDate());
+        batch.setQuantity(slot.quantity());
+        return batch;
+    }
+
+    /** Record {@code batch} as saved (created or changed) once the current transaction commits. */
+    public void putAfterCommit(Batch batch) {
+        long productId = batch.getProduct().getId();
+        Slot slot = slot(batch);
+        seeUncommitted(batch.getProduct(), batches -> with(batches, slot));
+        afterCommit(() -> byProduct.compute(productId, (id, batches) -> with(batches, slot)));
+    }
+
+    /** Record {@code qty} units taken from {@code batch} once the current transaction commits. */
+    public void deductAfterCommit(Batch batch, int qty) {
+        long productId = batch.getProduct().getId();
+        long batchId = batch.getId();
+        seeUncommitted(batch.getProduct(), batches -> deducted(batches, batchId, qty));
+        afterCommit(() -> byProduct.computeIfPresent(productId, (id, batches) -> deducted(batches, batchId, qty)));
+    }
+
+    private static Slot[] deducted(Slot[] batches, long batchId, int qty) {
+        for (Slot s : batches) {
+            if (s.batchId() == batchId) {
+                return with(batches, new Slot(batchId, s.batchNumber(), s.expiryDate(), s.quantity() - qty));
+            }
+        }
+        return batches; // not loaded yet, or drifted: the next reconciliation adds it
+    }
+
+    /**
+     * Apply {@code change} to the current transaction's own view of {@code product}'s batches, which
+     * {@link #plan} reads until commit. The view starts from the batches as the transaction first sees them.
+     * Not needed before loading: plan then queries the batches, and a transaction reads its own writes.
+     */
+    private void seeUncommitted(Product product, UnaryOperator<Slot[]> change) {
+        if (!loaded) return;
+        Map<Long, Slot[]> uncommitted = uncommitted(true);
+        if (uncommitted == null) return;
+        Slot[] batches = uncommitted.containsKey(product.getId()) ? uncommitted.get(product.getId()) : slots(product);
+        uncommitted.put(product.getId(), change.apply(batches));
+    }
+
+    /** Products whose batches the current transaction has changed; null outside a transaction or if none and not {@code create}. */
+    @SuppressWarnings("unchecked")
+    private Map<Long, Slot[]> uncommitted(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return null;
+        Map<Long, Slot[]> uncommitted = (Map<Long, Slot[]>) TransactionSynchronizationManager.getResource(this);
+        if (uncommitted == null && create) {
+            Map<Long, Slot[]> created = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BatchAllocator.this);
+                }
+            });
+            uncommitted = created;
+        }
+        return uncommitted;
+    }
+
+    /**
+     * Runs in afterCommit, which Spring calls for every synchronization before any afterCompletion. That is
+     * where the product locks are released.
+     */
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(update);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean counted;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                inFlight.incrementAndGet();
+                counted = true;
+            }
+
+            @Override
+            public void afterCommit() {
+                apply(update);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (counted) inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    private void apply(Runnable update) {
+        update.run();
+        mutations.incrementAndGet();
+    }
+
+    private static Slot[] with(Slot[] batches, Slot slot) {
+        if (batches == null) return new Slot[] { slot };
+        List<Slot> updated = new ArrayList<>(batches.length + 1);
+        for (Slot s : batches) {
+            if (s.batchId() != slot.batchId()) updated.add(s);
+        }
+        updated.add(slot);
+        updated.sort(FEFO);
+        return updated.toArray(Slot[]::new);
+    }
+
+    private static Slot slot(Batch batch) {
+        return new Slot(batch.getId(), batch.getBatchNumber(), batch.getExpiryDate(), batch.getQuantity());
+    }
+
+    /**
+     * Compare with the batches table and log any drift. Products are only corrected when no batch change
+     * was applied during the read; otherwise the next pass picks it up.
+     */
+    @Scheduled(initialDelayString = "${retailnexus.stock.reconcile-interval:PT5M}",
+               fixedDelayString = "${retailnexus.stock.reconcile-interval:PT5M}")
+    public void reconcile() {
+        if (!loaded) return;
+        long before = mutations.get();
+        boolean raced = inFlight.get() > 0;
+        Map<Long, Slot[]> actual = readAll();
+        raced = raced || inFlight.get() > 0 || mutations.get() != before;
+
+        Set<Long> ids = new HashSet<>(actual.keySet());
+        ids.addAll(byProduct.keySet());
+        long drift = 0;
+        for (Long id : ids) {
+            Slot[] expected = actual.getOrDefault(id, NONE);
+            if (Arrays.equals(byProduct.getOrDefault(id, NONE), expected)) continue;
+            drift++;
+            log.warn("Batch allocator drift for product {}", id);
+            if (!raced) {
+                if (expected.length == 0) byProduct.remove(id);
+                else byProduct.put(id, expected);
+            }
+        }
+        lastDriftCount = drift;
+        if (drift > 0) {
+            log.warn("Batch allocator reconciliation found {} drifted products{}", drift,
+                raced ? " (not corrected: batches changed during the check)" : " (corrected)");
+        }
+    }
+
+    /** Number of products that drifted in the last reconciliation pass. */
+    public long getLastDriftCount() {
+        return lastDriftCount;
+    }
+
+    private Map<Long, Slot[]> readAll() {
+        Map<Long, List<Slot>> rows = new HashMap<>();
+        for (Object[] row : batchRepository.findAllocationRows()) {
+            rows.computeIfAbsent((Long) row[1], id -> new ArrayList<>(2))
+                .add(new Slot((Long) row[0], (String) row[2], (LocalDate) row[3], (Integer) row[4]));
+        }
+        Map<Long, Slot[]> batches = new HashMap<>(rows.size() * 2);
+        rows.forEach((id, slots) -> batches.put(id, slots.stream().sorted(FEFO).toArray(Slot[]::new)));
+        return batches;
+    }
+}
@@ -4,7 +4,7 @@ import com.retailnexus.entity.Batch;
 import com.retailnexus.entity.InventoryTransaction;
 import com.retailnexus.entity.Product;
 import com.retailnexus.repository.BatchRepository;
-import com.retailnexus.repository.InventoryTransactionRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,11 +16,20 @@ import java.util.Optional;
 public class BatchService {
 
     private final BatchRepository batchRepository;
-    private final InventoryTransactionRepository transactionRepository;
-
-    public BatchService(BatchRepository batchRepository, InventoryTransactionRepository transactionRepository) {
+    private final InventoryLedger ledger;
+    private final StockRegistry stockRegistry;
+    private final BatchAllocator batchAllocator;
+    private final ProductLockStripes productLocks;
+    private final ApplicationEventPublisher events;
+
+    public BatchService(BatchRepository batchRepository, InventoryLedger ledger, StockRegistry stockRegistry,
+                        BatchAllocator batchAllocator, ProductLockStripes productLocks, ApplicationEventPublisher events) {
         this.batchRepository = batchRepository;
-        this.transactionRepository = transactionRepository;
+        this.ledger = ledger;
+        this.stockRegistry = stockRegistry;
+        this.batchAllocator = batchAllocator;
+        this.productLocks = productLocks;
+        this.events = events;
     }
 
     @Transactional(readOnly = true)
@@ -34,28 +43,35 @@ public class BatchService {
         return sum != null ? sum : 0;
     }
 
+    /**
+     * Save a new batch as a restock of its full quantity. Existing batches are rejected: their quantity change
+     * is not a restock, so change it with {@link #setBatchQuantity} instead.
+     */
     @Transactional
     public Batch save(Batch batch) {
+        if (batch.getId() != null) {
+            throw new IllegalArgumentException("Batch " + batch.getId() + " already exists; use setBatchQuantity");
+        }
         Batch saved = batchRepository.save(batch);
-        InventoryTransaction tx = new InventoryTransaction();
-        tx.setBatch(saved);
-        tx.setType(InventoryTransaction.TransactionType.RESTOCK);
-        tx.setQuantityChange(saved.getQuantity());
-        tx.setReference("RESTOCK");
-        transactionRepository.save(tx);
+        ledger.record(saved, InventoryTransaction.TransactionType.RESTOCK, saved.getQuantity(), "RESTOCK");
+        batchAllocator.putAfterCommit(saved);
+        stockChanged(saved.getProduct().getId(), saved.getQuantity());
         return saved;
     }
 
+    /**
+     * Deduct with a single {@code quantity = quantity - ?} UPDATE so concurrent sales never overwrite each
+     * other's deduction. The managed {@code batch} is left untouched (its quantity is stale afterwards).
+     */
     @Transactional
     public void deductStock(Batch batch, int qty, String reference) {
-        batch.setQuantity(batch.getQuantity() - qty);
-        batchRepository.save(batch);
-        InventoryTransaction tx = new InventoryTransaction();
-        tx.setBatch(batch);
-        tx.setType(InventoryTransaction.TransactionType.SALE);
-        tx.setQuantityChange(-qty);
-        tx.setReference(reference);
-        transactionRepository.save(tx);
+        int updated = batchRepository.deductQuantity(batch.getId(), qty);
+        if (updated != 1) {
+            throw new IllegalStateException("Batch " + batch.getId() + " not found while deducting stock");
+        }
+        ledger.record(batch, InventoryTransaction.TransactionType.SALE, -qty, reference);
+        batchAllocator.deductAfterCommit(batch, qty);
+        stockChanged(batch.getProduct().getId(), -qty);
     }
 
     @Transactional(readOnly = true)
@@ -90,26 +106,40 @@ public class BatchService {
         batch.setBatchNumber("DEF-" + product.getId());
         batch.setExpiryDate(LocalDate.now().plusYears(1));
         batch.setQuantity(0);
-        return batchRepository.save(batch);
+        Batch saved = batchRepository.saveAndFlush(batch); // deductStock's UPDATE does not flush
+        batchAllocator.putAfterCommit(saved);
+        return saved;
     }
 
-    /** Update batch quantity (user-set stock). Does not create inventory transaction. */
+    /**
+     * Update batch quantity (user-set stock). Does not create inventory transaction. The batch is re-read under
+     * the product's lock stripe, so the change is measured against stock a concurrent checkout already deducted.
+     */
     @Transactional
     public void setBatchQuantity(Batch batch, int quantity) {
-        batch.setQuantity(quantity);
-        batchRepository.save(batch);
+        productLocks.lockUntilCompletion(List.of(batch.getProduct().getId()));
+        Batch current = batchRepository.findById(batch.getId()).orElseThrow();
+        stockChanged(current.getProduct().getId(), quantity - current.getQuantity());
+        current.setQuantity(quantity);
+        batchAllocator.putAfterCommit(batchRepository.save(current));
     }
 
     /** Add quantity to product's stock (used by Add Stock form). No batch number or expiry shown. */
     @Transactional
     public void addProductStock(Product product, int quantity) {
+        productLocks.lockUntilCompletion(List.of(product.getId()));
         int current = getTotalStock(product);
         setProductStock(product, current + quantity);
     }
 
-    /** Set total stock for a product (user-editable from inventory list). Uses one batch; others set to 0. */
+    /**
+     * Set total stock for a product (user-editable from inventory list). Uses one batch; others set to 0. Holds
+     * the product's lock stripe from the read to commit, like checkout, so a concurrent sale's deduction is
+     * never overwritten by the absolute quantities written here.
+     */
     @Transactional
     public void setProductStock(Product product, int quantity) {
+        productLocks.lockUntilCompletion(List.of(product.getId()));
         List<Batch> batches = batchRepository.findByProductOrderByExpiryDateAsc(product);
         if (batches.isEmpty()) {
             Batch batch = new Batch();
@@ -117,14 +147,23 @@ public class BatchService {
             batch.setBatchNumber("STOCK-" + product.getId());
             batch.setExpiryDate(LocalDate.now().plusYears(1));
             batch.setQuantity(quantity);
-            batchRepository.save(batch);
+            batchAllocator.putAfterCommit(batchRepository.save(batch));
+            stockChanged(product.getId(), quantity);
             return;
         }
+        int previous = batches.stream().mapToInt(Batch::getQuantity).sum();
+        stockChanged(product.getId(), quantity - previous);
         batches.get(0).setQuantity(quantity);
-        batchRepository.save(batches.get(0));
+        batchAllocator.putAfterCommit(batchRepository.save(batches.get(0)));
         for (int i = 1; i < batches.size(); i++) {
             batches.get(i).setQuantity(0);
-            batchRepository.save(batches.get(i));
+            batchAllocator.putAfterCommit(batchRepository.save(batches.get(i)));
         }
     }
+
+    /** Move the in-memory counter after commit and tell listeners (e.g. the dashboard snapshot) the stock changed. */
+    private void stockChanged(Long productId, int delta) {
+        stockRegistry.applyAfterCommit(productId, delta);
+        events.publishEvent(new StockChangedEvent(productId));
+    }
 }
@@ -0,0 +1,58 @@
+package com.retailnexus.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hibernate second-level and query cache counters (since startup or the last {@link #reset}), per region and
+ * in total, for operators checking that the Product/User caches actually absorb reads.
+ */
+@Service
+public class CacheStatsService {
+
+    private final Statistics statistics;
+
+    public CacheStatsService(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public record RegionStats(String region, long hits, long misses, long puts, double hitRatio) {}
+
+    /** Totals over all regions, query cache totals, and the number of entity loads that went to the database. */
+    public record CacheStats(boolean enabled, long secondLevelHits, long secondLevelMisses, long secondLevelPuts,
+                             long queryCacheHits, long queryCacheMisses, long queryCachePuts, long entityLoads,
+                             long queryExecutions, List<RegionStats> regions) {}
+
+    public CacheStats snapshot() {
+        List<RegionStats> regions = new ArrayList<>();
+        String[] names = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(names);
+        for (String name : names) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region == null) continue;
+            regions.add(new RegionStats(name, region.getHitCount(), region.getMissCount(), region.getPutCount(),
+                ratio(region.getHitCount(), region.getMissCount())));
+        }
+        return new CacheStats(statistics.isStatisticsEnabled(),
+            statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+            statistics.getSecondLevelCachePutCount(), statistics.getQueryCacheHitCount(),
+            statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount(), statistics.getEntityLoadCount(),
+            statistics.getQueryExecutionCount(), regions);
+    }
+
+    public void reset() {
+        statistics.clear();
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
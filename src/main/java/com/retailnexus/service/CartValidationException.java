@@ -0,0 +1,16 @@
+package com.retailnexus.service;
+
+import java.util.List;
+
+/** Thrown by {@link SaleService#prepareCart} before any stock is touched; lists every problem in the cart. */
+public class CartValidationException extends RuntimeException {
+
+    private final List<String> errors;
+
+    public CartValidationException(List<String> errors) {
+        super(String.join("; ", errors));
+        this.errors = List.copyOf(errors);
+    }
+
+    public List<String> getErrors() { return errors; }
+}
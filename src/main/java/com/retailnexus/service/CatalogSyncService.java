@@ -0,0 +1,110 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.Product;
+import com.retailnexus.repository.ProductRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Versioned catalog for billing tills. Every product change and stock change (after commit) takes the next
+ * catalog version, so a till holding version N can fetch just the products whose version is above N.
+ * <p>
+ * Versions live in memory. They start at the startup time in microseconds, so they keep increasing across
+ * restarts; a till whose version predates this process (or is unknown) gets the full catalog instead of a delta.
+ */
+@Service
+public class CatalogSyncService {
+
+    private final ProductRepository productRepository;
+    private final StockRegistry stockRegistry;
+    /** Version of every product as loaded at startup; also the lowest version a delta can start from. */
+    private final long baseVersion = System.currentTimeMillis() * 1000;
+    private volatile long version = baseVersion;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Map<Long, Long> productVersions = new ConcurrentHashMap<>();
+    /** Latest version -> product id; a product appears once, under its latest version. */
+    private final ConcurrentSkipListMap<Long, Long> changes = new ConcurrentSkipListMap<>();
+
+    public CatalogSyncService(ProductRepository productRepository, StockRegistry stockRegistry) {
+        this.productRepository = productRepository;
+        this.stockRegistry = stockRegistry;
+    }
+
+    /** One product as a till sees it. */
+    public record CatalogItem(Long id, String name, String barcode, String category, BigDecimal costPrice,
+                              BigDecimal sellingPrice, BigDecimal gstPercent, String unit, int stock, long version) {}
+
+    /**
+     * Catalog state at {@code version}: either everything ({@code full}) or the products changed since the
+     * requested version, plus ids of products deleted since then.
+     */
+    public record CatalogDelta(long version, boolean full, List<CatalogItem> products, List<Long> removed) {}
+
+    public long currentVersion() {
+        return version;
+    }
+
+    /** Changes after {@code since}; null, a version from before this process, or one from the future get the full catalog. */
+    @Transactional(readOnly = true)
+    public CatalogDelta changesSince(Long since) {
+        long current = version;
+        if (since == null || since < baseVersion || since > current) {
+            List<CatalogItem> items = new ArrayList<>();
+            for (Product p : productRepository.findAllByOrderByNameAsc()) {
+                items.add(item(p));
+            }
+            return new CatalogDelta(current, true, items, List.of());
+        }
+        Set<Long> ids = new LinkedHashSet<>(changes.subMap(since, false, current, true).values());
+        List<CatalogItem> items = new ArrayList<>(ids.size());
+        for (Product p : productRepository.findAllByIdCached(ids)) {
+            items.add(item(p));
+            ids.remove(p.getId());
+        }
+        return new CatalogDelta(current, false, items, new ArrayList<>(ids));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        bump(event.productId());
+    }
+
+    /**
+     * Runs after {@link StockRegistry} applied the delta: BatchService registers the registry update before it
+     * publishes the event, and after-commit callbacks run in registration order.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        bump(event.productId());
+    }
+
+    private void bump(Long productId) {
+        writeLock.lock();
+        try {
+            long next = version + 1;
+            Long previous = productVersions.put(productId, next);
+            if (previous != null) changes.remove(previous);
+            changes.put(next, productId);
+            version = next;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private CatalogItem item(Product p) {
+        return new CatalogItem(p.getId(), p.getName(), p.getBarcode(), p.getCategory(), p.getCostPrice(), p.getSellingPrice(),
+            p.getGstPercent(), p.getUnit() != null ? p.getUnitLabel() : "pcs", stockRegistry.get(p.getId()),
+            productVersions.getOrDefault(p.getId(), baseVersion));
+    }
+}
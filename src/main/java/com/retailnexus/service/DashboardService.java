@@ -2,53 +2,52 @@ package com.retailnexus.service;
 
 import com.retailnexus.entity.Product;
 import com.retailnexus.repository.BatchRepository;
+import com.retailnexus.repository.CategorySalesRow;
+import com.retailnexus.repository.MonthlySalesRow;
 import com.retailnexus.repository.ProductRepository;
-import com.retailnexus.repository.SaleItemRepository;
-import com.retailnexus.repository.SaleRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class DashboardService {
 
-    private final SaleRepository saleRepository;
-    private final SaleItemRepository saleItemRepository;
     private final ProductRepository productRepository;
     private final BatchRepository batchRepository;
+    private final StockSnapshotService stockSnapshotService;
+    private final SalesRollupService salesRollupService;
 
-    public DashboardService(SaleRepository saleRepository, SaleItemRepository saleItemRepository,
-                            ProductRepository productRepository, BatchRepository batchRepository) {
-        this.saleRepository = saleRepository;
-        this.saleItemRepository = saleItemRepository;
+    public DashboardService(ProductRepository productRepository,
+                            BatchRepository batchRepository, StockSnapshotService stockSnapshotService,
+                            SalesRollupService salesRollupService) {
         this.productRepository = productRepository;
         this.batchRepository = batchRepository;
+        this.stockSnapshotService = stockSnapshotService;
+        this.salesRollupService = salesRollupService;
     }
 
     @Transactional(readOnly = true)
     public BigDecimal totalSalesToday() {
-        BigDecimal v = saleRepository.totalSalesByDate(LocalDate.now());
+        LocalDate today = LocalDate.now();
+        BigDecimal v = salesRollupService.revenueBetween(today, today);
         return v != null ? v : BigDecimal.ZERO;
     }
 
     @Transactional(readOnly = true)
     public BigDecimal monthlyRevenue() {
-        LocalDateTime start = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-        LocalDateTime end = LocalDateTime.now();
-        BigDecimal v = saleRepository.totalSalesBetween(start, end);
+        LocalDate today = LocalDate.now();
+        BigDecimal v = salesRollupService.revenueBetween(today.withDayOfMonth(1), today);
         return v != null ? v : BigDecimal.ZERO;
     }
 
     @Transactional(readOnly = true)
     public BigDecimal totalProfit() {
-        LocalDateTime start = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-        LocalDateTime end = LocalDateTime.now();
-        BigDecimal v = saleRepository.totalProfitBetween(start, end);
+        LocalDate today = LocalDate.now();
+        BigDecimal v = salesRollupService.profitBetween(today.withDayOfMonth(1), today);
         return v != null ? v : BigDecimal.ZERO;
     }
 
@@ -56,12 +55,11 @@ public class DashboardService {
 
     @Transactional(readOnly = true)
     public long lowStockCount() {
-        List<Product> products = productRepository.findAll();
+        StockSnapshot stock = stockSnapshotService.availableStock();
         long count = 0;
-        for (Product p : products) {
-            Integer sum = batchRepository.sumQuantityByProduct(p);
-            int stock = (sum != null ? sum : 0);
-            if (stock > 0 && stock <= LOW_STOCK_THRESHOLD) count++;
+        for (Product p : productRepository.findAll()) {
+            int qty = stock.get(p.getId());
+            if (qty > 0 && qty <= LOW_STOCK_THRESHOLD) count++;
         }
         return count;
     }
@@ -70,65 +68,54 @@ public class DashboardService {
     public long nearExpiryCount() {
         LocalDate from = LocalDate.now();
         LocalDate to = LocalDate.now().plusDays(5);
-        return batchRepository.findNearExpiry(from, to).size();
+        return batchRepository.countNearExpiry(from, to);
     }
 
     @Transactional(readOnly = true)
     public long deadStockCount() {
-        LocalDateTime since = LocalDateTime.now().minusDays(30);
-        List<Object[]> salesByProduct = saleItemRepository.findSalesByProductSince(since);
-        Set<Long> soldProductIds = salesByProduct.stream()
-            .map(row -> ((Product) row[0]).getId())
-            .collect(Collectors.toSet());
-        List<Product> all = productRepository.findAll();
+        Set<Long> soldProductIds = salesRollupService.productIdsSoldSince(LocalDate.now().minusDays(30));
+        StockSnapshot stock = stockSnapshotService.availableStock();
         long count = 0;
-        for (Product p : all) {
+        for (Product p : productRepository.findAll()) {
             if (soldProductIds.contains(p.getId())) continue;
-            Integer sum = batchRepository.sumQuantityByProduct(p);
-            if (sum != null && sum > 0) count++;
+            if (stock.get(p.getId()) > 0) count++;
         }
         return count;
     }
 
+    /** Revenue of the last {@code months} calendar months (oldest first), from one GROUP BY over the daily rollup. */
     @Transactional(readOnly = true)
     public Map<String, BigDecimal> monthlySalesTrend(int months) {
+        LocalDate first = LocalDate.now().minusMonths(months - 1).withDayOfMonth(1);
+        Map<YearMonth, BigDecimal> byMonth = new HashMap<>();
+        for (MonthlySalesRow row : salesRollupService.revenueByMonthSince(first)) {
+            byMonth.put(YearMonth.of(row.year(), row.month()), row.revenue());
+        }
         Map<String, BigDecimal> trend = new LinkedHashMap<>();
-        LocalDate now = LocalDate.now();
-        for (int i = months - 1; i >= 0; i--) {
-            LocalDate monthStart = now.minusMonths(i).withDayOfMonth(1);
-            LocalDate monthEnd = monthStart.plusMonths(1);
-            BigDecimal v = saleRepository.totalSalesBetween(monthStart.atStartOfDay(), monthEnd.atStartOfDay());
-            trend.put(monthStart.getMonth().name().substring(0, 3) + " " + monthStart.getYear(),
-                v != null ? v : BigDecimal.ZERO);
+        for (int i = 0; i < months; i++) {
+            YearMonth month = YearMonth.from(first).plusMonths(i);
+            trend.put(month.getMonth().name().substring(0, 3) + " " + month.getYear(),
+                byMonth.getOrDefault(month, BigDecimal.ZERO));
         }
         return trend;
     }
 
+    /** Revenue per category (sum of sale item totals) over the last {@code months} months. */
     @Transactional(readOnly = true)
     public Map<String, BigDecimal> categoryWiseSales(int months) {
-        LocalDateTime since = LocalDateTime.now().minusMonths(months);
-        List<Object[]> data = saleItemRepository.findSalesByProductSince(since);
-        Map<String, BigDecimal> byCategory = new HashMap<>();
-        for (Object[] row : data) {
-            Product p = (Product) row[0];
-            BigDecimal qty = row[1] instanceof BigDecimal ? (BigDecimal) row[1] : BigDecimal.valueOf(((Number) row[1]).longValue());
-            if (qty == null) qty = BigDecimal.ZERO;
-            BigDecimal amount = p.getSellingPrice().multiply(qty);
-            byCategory.merge(p.getCategory(), amount, BigDecimal::add);
+        Map<String, BigDecimal> byCategory = new LinkedHashMap<>();
+        for (CategorySalesRow row : salesRollupService.totalsByCategorySince(LocalDate.now().minusMonths(months))) {
+            byCategory.put(row.category(), row.revenue());
         }
         return byCategory;
     }
 
+    /** Profit per category over the last {@code months} months. */
     @Transactional(readOnly = true)
     public Map<String, BigDecimal> profitDistribution(int months) {
-        LocalDateTime start = LocalDateTime.now().minusMonths(months);
-        List<com.retailnexus.entity.Sale> sales = saleRepository.findBySaleDateBetweenOrderBySaleDateDesc(start, LocalDateTime.now());
-        Map<String, BigDecimal> byCategory = new HashMap<>();
-        for (com.retailnexus.entity.Sale s : sales) {
-            for (com.retailnexus.entity.SaleItem si : s.getItems()) {
-                String cat = si.getProduct().getCategory();
-                byCategory.merge(cat, si.getProfit(), BigDecimal::add);
-            }
+        Map<String, BigDecimal> byCategory = new LinkedHashMap<>();
+        for (CategorySalesRow row : salesRollupService.totalsByCategorySince(LocalDate.now().minusMonths(months))) {
+            byCategory.put(row.category(), row.profit());
         }
         return byCategory;
     }
@@ -0,0 +1,89 @@
+package com.retailnexus.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable set of dashboard widget values. Split into a sales part and a stock part so an event only
+ * forces the part it affects to be recomputed. A widget that failed or timed out is {@code null} (scalars) or
+ * empty (charts, suggestions).
+ */
+public final class DashboardSnapshot {
+
+    /** Independently refreshable parts of the snapshot. */
+    public enum Section { SALES, STOCK }
+
+    private final LocalDate date;
+    private final Instant computedAt;
+    private final SalesFigures sales;
+    private final StockFigures stock;
+
+    DashboardSnapshot(LocalDate date, Instant computedAt, SalesFigures sales, StockFigures stock) {
+        this.date = date;
+        this.computedAt = computedAt;
+        this.sales = sales;
+        this.stock = stock;
+    }
+
+    /** The day "today" referred to when this snapshot was computed. */
+    public LocalDate getDate() { return date; }
+    public Instant getComputedAt() { return computedAt; }
+
+    public BigDecimal getTotalSalesToday() { return sales.totalSalesToday; }
+    public BigDecimal getMonthlyRevenue() { return sales.monthlyRevenue; }
+    public BigDecimal getTotalProfit() { return sales.totalProfit; }
+    public Map<String, BigDecimal> getMonthlyTrend() { return sales.monthlyTrend; }
+    public Map<String, BigDecimal> getCategorySales() { return sales.categorySales; }
+    public Map<String, BigDecimal> getProfitDistribution() { return sales.profitDistribution; }
+
+    public Long getLowStockCount() { return stock.lowStockCount; }
+    public Long getNearExpiryCount() { return stock.nearExpiryCount; }
+    public Long getDeadStockCount() { return stock.deadStockCount; }
+    public List<RestockSuggestionService.RestockSuggestion> getRestockSuggestions() { return stock.restockSuggestions; }
+
+    SalesFigures sales() { return sales; }
+    StockFigures stock() { return stock; }
+
+    static final class SalesFigures {
+        final BigDecimal totalSalesToday;
+        final BigDecimal monthlyRevenue;
+        final BigDecimal totalProfit;
+        final Map<String, BigDecimal> monthlyTrend;
+        final Map<String, BigDecimal> categorySales;
+        final Map<String, BigDecimal> profitDistribution;
+        final boolean complete;
+
+        SalesFigures(BigDecimal totalSalesToday, BigDecimal monthlyRevenue, BigDecimal totalProfit,
+                     Map<String, BigDecimal> monthlyTrend, Map<String, BigDecimal> categorySales,
+                     Map<String, BigDecimal> profitDistribution, boolean complete) {
+            this.totalSalesToday = totalSalesToday;
+            this.monthlyRevenue = monthlyRevenue;
+            this.totalProfit = totalProfit;
+            this.monthlyTrend = Collections.unmodifiableMap(monthlyTrend);
+            this.categorySales = Collections.unmodifiableMap(categorySales);
+            this.profitDistribution = Collections.unmodifiableMap(profitDistribution);
+            this.complete = complete;
+        }
+    }
+
+    static final class StockFigures {
+        final Long lowStockCount;
+        final Long nearExpiryCount;
+        final Long deadStockCount;
+        final List<RestockSuggestionService.RestockSuggestion> restockSuggestions;
+        final boolean complete;
+
+        StockFigures(Long lowStockCount, Long nearExpiryCount, Long deadStockCount,
+                     List<RestockSuggestionService.RestockSuggestion> restockSuggestions, boolean complete) {
+            this.lowStockCount = lowStockCount;
+            this.nearExpiryCount = nearExpiryCount;
+            this.deadStockCount = deadStockCount;
+            this.restockSuggestions = List.copyOf(restockSuggestions);
+            this.complete = complete;
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.retailnexus.service;
+
+import com.retailnexus.service.DashboardSnapshot.Section;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves the dashboard from an in-memory {@link DashboardSnapshot}. Sale, stock and product events mark the
+ * affected sections stale and schedule a debounced background recompute; until it finishes, viewers keep getting the
+ * previous snapshot for at most {@code max-staleness}. A snapshot is also recomputed once it is older than
+ * {@code max-age} (covers time-based widgets such as near-expiry) or when the date changes.
+ * <p>
+ * Widgets are computed in parallel on a small dedicated pool, each in its own read-only transaction, and joined
+ * with a per-widget timeout that starts when the widget starts running, not while it waits for a pool thread; a
+ * widget that fails or times out shows a placeholder and its section is retried later, backing off from
+ * {@code debounce} and doubling on each consecutive failure up to {@code max-age}.
+ * <p>
+ * Metrics: {@code retailnexus.dashboard.refresh} and {@code retailnexus.dashboard.widget} (tagged widget) time
+ * recomputes, {@code retailnexus.dashboard.views} counts page views by result (hit, miss) and
+ * {@code retailnexus.dashboard.widget.failures} counts placeholders served.
+ */
+@Service
+public class DashboardSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardSnapshotService.class);
+    private static final int TREND_MONTHS = 6;
+    private static final int CATEGORY_MONTHS = 1;
+    /** How often a join re-checks whether a queued widget has started running. */
+    private static final long QUEUED_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final DashboardService dashboardService;
+    private final RestockSuggestionService restockSuggestionService;
+    private final TaskScheduler taskScheduler;
+    private final Duration debounce;
+    private final Duration maxStaleness;
+    private final Duration maxAge;
+    private final Duration widgetTimeout;
+    private final int threads;
+    private final ExecutorService executor;
+    private final MeterRegistry meterRegistry;
+    private final Timer refreshTimer;
+
+    private volatile DashboardSnapshot snapshot;
+    private final Set<Section> staleSections = ConcurrentHashMap.newKeySet();
+    /** When the snapshot first became stale (epoch millis), 0 while it is fresh. */
+    private final AtomicLong staleSince = new AtomicLong();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    /** Consecutive failed recomputes per section. Guarded by refreshLock. */
+    private final Map<Section, Integer> failureStreaks = new EnumMap<>(Section.class);
+    /** Sections with a backed-off retry scheduled. */
+    private final Set<Section> retryScheduled = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong widgetFailures = new AtomicLong();
+    private final Map<String, Duration> widgetTimings = new ConcurrentHashMap<>();
+
+    public DashboardSnapshotService(DashboardService dashboardService, RestockSuggestionService restockSuggestionService,
+                                    TaskScheduler taskScheduler, MeterRegistry meterRegistry,
+                                    @Value("${retailnexus.dashboard.debounce:PT2S}") Duration debounce,
+                                    @Value("${retailnexus.dashboard.max-staleness:PT30S}") Duration maxStaleness,
+                                    @Value("${retailnexus.dashboard.max-age:PT5M}") Duration maxAge,
+                                    @Value("${retailnexus.dashboard.widget-timeout:PT5S}") Duration widgetTimeout,
+                                    @Value("${retailnexus.dashboard.threads:4}") int threads,
+                                    @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.dashboardService = dashboardService;
+        this.restockSuggestionService = restockSuggestionService;
+        this.taskScheduler = taskScheduler;
+        this.debounce = debounce;
+        this.maxStaleness = maxStaleness;
+        this.maxAge = maxAge;
+        this.widgetTimeout = widgetTimeout;
+        this.threads = threads;
+        this.executor = newWidgetExecutor(threads, virtualThreads && Runtime.version().feature() >= 21);
+        this.meterRegistry = meterRegistry;
+        this.refreshTimer = Timer.builder("retailnexus.dashboard.refresh")
+            .description("Dashboard snapshot recomputes, foreground and background")
+            .register(meterRegistry);
+        FunctionCounter.builder("retailnexus.dashboard.views", hits, AtomicLong::get).tag("result", "hit")
+            .description("Dashboard page views by whether the cached snapshot could be served")
+            .register(meterRegistry);
+        FunctionCounter.builder("retailnexus.dashboard.views", misses, AtomicLong::get).tag("result", "miss")
+            .description("Dashboard page views by whether the cached snapshot could be served")
+            .register(meterRegistry);
+        FunctionCounter.builder("retailnexus.dashboard.widget.failures", widgetFailures, AtomicLong::get)
+            .description("Dashboard widgets that failed or timed out and showed a placeholder")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Fixed pool with a short queue, kept well below the JDBC pool so widget queries cannot starve checkout.
+     * A full queue rejects the widget, which then shows its placeholder. In virtual-thread mode the workers are
+     * virtual threads; the pool size still bounds how many widget queries hold a connection at once.
+     */
+    private static ExecutorService newWidgetExecutor(int threads, boolean virtual) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = virtual
+            ? new VirtualThreadTaskExecutor("dashboard-").getVirtualThreadFactory()
+            : task -> {
+                Thread thread = new Thread(task, "dashboard-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(threads * 4), factory);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /** Current snapshot; recomputed in the caller's thread only when it is missing or too stale to serve. */
+    public DashboardSnapshot current() {
+        DashboardSnapshot s = snapshot;
+        if (isServable(s)) {
+            hits.incrementAndGet();
+            return s;
+        }
+        misses.incrementAndGet();
+        refreshLock.lock();
+        try {
+            s = snapshot;
+            if (isServable(s)) return s;
+            return refresh();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleCompleted(SaleCompletedEvent event) {
+        markStale(EnumSet.allOf(Section.class));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        markStale(EnumSet.of(Section.STOCK));
+    }
+
+    /** Renames, price edits and deletes change the low-stock, dead-stock and restock widgets. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        markStale(EnumSet.of(Section.STOCK));
+    }
+
+    private void markStale(Set<Section> sections) {
+        staleSections.addAll(sections);
+        staleSince.compareAndSet(0, System.currentTimeMillis());
+        if (refreshScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::backgroundRefresh, Instant.now().plus(debounce));
+        }
+    }
+
+    private void backgroundRefresh() {
+        refreshScheduled.set(false);
+        refreshLock.lock();
+        try {
+            if (!staleSections.isEmpty()) refresh();
+        } catch (RuntimeException e) {
+            log.warn("Dashboard snapshot refresh failed; serving the previous snapshot", e);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private boolean isServable(DashboardSnapshot s) {
+        if (s == null || !s.getDate().equals(LocalDate.now())) return false;
+        long now = System.currentTimeMillis();
+        if (now - s.getComputedAt().toEpochMilli() > maxAge.toMillis()) return false;
+        long since = staleSince.get();
+        return staleSections.isEmpty() || since == 0 || now - since <= maxStaleness.toMillis();
+    }
+
+    /** Recompute stale sections (all of them if the snapshot is missing, old or from another day). Caller holds refreshLock. */
+    private DashboardSnapshot refresh() {
+        return refreshTimer.record(this::recompute);
+    }
+
+    private DashboardSnapshot recompute() {
+        DashboardSnapshot previous = snapshot;
+        LocalDate today = LocalDate.now();
+        boolean full = previous == null || !previous.getDate().equals(today)
+            || System.currentTimeMillis() - previous.getComputedAt().toEpochMilli() > maxAge.toMillis();
+
+        staleSince.set(0);
+        Set<Section> stale = EnumSet.noneOf(Section.class);
+        for (Section section : Section.values()) {
+            if (staleSections.remove(section)) stale.add(section);
+        }
+        boolean needSales = full || stale.contains(Section.SALES);
+        boolean needStock = full || stale.contains(Section.STOCK);
+
+        // Submit every widget first so they run side by side, then join each against its own deadline, counted
+        // from when it starts running.
+        WidgetFanOut fanOut = new WidgetFanOut();
+        if (needSales) {
+            fanOut.submit("totalSalesToday", dashboardService::totalSalesToday);
+            fanOut.submit("monthlyRevenue", dashboardService::monthlyRevenue);
+            fanOut.submit("totalProfit", dashboardService::totalProfit);
+            fanOut.submit("monthlySalesTrend", () -> dashboardService.monthlySalesTrend(TREND_MONTHS));
+            fanOut.submit("categoryWiseSales", () -> dashboardService.categoryWiseSales(CATEGORY_MONTHS));
+            fanOut.submit("profitDistribution", () -> dashboardService.profitDistribution(CATEGORY_MONTHS));
+        }
+        if (needStock) {
+            fanOut.submit("lowStockCount", dashboardService::lowStockCount);
+            fanOut.submit("nearExpiryCount", dashboardService::nearExpiryCount);
+            fanOut.submit("deadStockCount", dashboardService::deadStockCount);
+            fanOut.submit("restockSuggestions", restockSuggestionService::getSuggestions);
+        }
+
+        DashboardSnapshot.SalesFigures sales = previous != null && !needSales ? previous.sales()
+            : new DashboardSnapshot.SalesFigures(
+                fanOut.join("totalSalesToday", null),
+                fanOut.join("monthlyRevenue", null),
+                fanOut.join("totalProfit", null),
+                fanOut.join("monthlySalesTrend", Map.of()),
+                fanOut.join("categoryWiseSales", Map.of()),
+                fanOut.join("profitDistribution", Map.of()),
+                fanOut.takeComplete());
+        DashboardSnapshot.StockFigures stock = previous != null && !needStock ? previous.stock()
+            : new DashboardSnapshot.StockFigures(
+                fanOut.join("lowStockCount", null),
+                fanOut.join("nearExpiryCount", null),
+                fanOut.join("deadStockCount", null),
+                fanOut.join("restockSuggestions", List.of()),
+                fanOut.takeComplete());
+
+        DashboardSnapshot next = new DashboardSnapshot(today, Instant.now(), sales, stock);
+        snapshot = next;
+        refreshes.incrementAndGet();
+        // Placeholders are served for now; failed sections are retried after a backoff.
+        if (needSales) recordOutcome(Section.SALES, sales.complete);
+        if (needStock) recordOutcome(Section.STOCK, stock.complete);
+        return next;
+    }
+
+    /**
+     * Schedules a retry of a section that just failed, after {@code debounce} doubled per consecutive failure and
+     * capped at {@code max-age}, so a widget that always fails is not recomputed every debounce. Caller holds
+     * refreshLock.
+     */
+    private void recordOutcome(Section section, boolean complete) {
+        if (complete) {
+            failureStreaks.remove(section);
+            return;
+        }
+        int streak = failureStreaks.merge(section, 1, Integer::sum);
+        if (!retryScheduled.add(section)) return;
+        Duration delay = debounce.multipliedBy(1L << Math.min(streak - 1, 20));
+        if (delay.compareTo(maxAge) > 0) delay = maxAge;
+        log.debug("Dashboard {} section failed {} time(s) in a row; retrying in {}", section, streak, delay);
+        taskScheduler.schedule(() -> {
+            retryScheduled.remove(section);
+            markStale(EnumSet.of(section));
+        }, Instant.now().plus(delay));
+    }
+
+    /**
+     * One dashboard recompute: widgets run on {@link #executor}, each through its service's read-only transaction.
+     * A widget gets {@code widget-timeout} from the moment it starts running. One still queued after every round of
+     * the pool could have used its full timeout is given up too: the pool is stuck.
+     */
+    private final class WidgetFanOut {
+        private final Map<String, Future<?>> futures = new HashMap<>();
+        /** System.nanoTime() at which each widget started running; absent while it is queued. */
+        private final Map<String, Long> started = new ConcurrentHashMap<>();
+        private final long submittedAt = System.nanoTime();
+        private boolean failed;
+
+        void submit(String widget, Callable<?> task) {
+            try {
+                futures.put(widget, executor.submit(() -> {
+                    long start = System.nanoTime();
+                    started.put(widget, start);
+                    try {
+                        return task.call();
+                    } finally {
+                        long nanos = System.nanoTime() - start;
+                        widgetTimings.put(widget, Duration.ofNanos(nanos));
+                        meterRegistry.timer("retailnexus.dashboard.widget", "widget", widget)
+                            .record(nanos, TimeUnit.NANOSECONDS);
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                futures.put(widget, CompletableFuture.failedFuture(e));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T join(String widget, T placeholder) {
+            Future<?> future = futures.get(widget);
+            try {
+                return (T) await(widget, future);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("Dashboard widget {} timed out after {}", widget, widgetTimeout);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+            } catch (ExecutionException e) {
+                log.warn("Dashboard widget {} failed", widget, e.getCause());
+            }
+            failed = true;
+            widgetFailures.incrementAndGet();
+            return placeholder;
+        }
+
+        /** Wait until {@code widget}'s own deadline once it runs, polling while it is still queued. */
+        private Object await(String widget, Future<?> future)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            long timeout = widgetTimeout.toNanos();
+            long rounds = Math.max(1, (futures.size() + threads - 1) / threads);
+            long queuedLimit = submittedAt + rounds * timeout;
+            while (true) {
+                Long start = started.get(widget);
+                long now = System.nanoTime();
+                if (start == null && now - queuedLimit > 0) throw new TimeoutException();
+                long wait = start != null ? start + timeout - now : QUEUED_POLL_NANOS;
+                try {
+                    return future.get(Math.max(0, wait), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    if (start != null) throw e;
+                }
+            }
+        }
+
+        /** Whether every widget joined since the last call succeeded. */
+        boolean takeComplete() {
+            boolean complete = !failed;
+            failed = false;
+            return complete;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Duration of the last run of each widget (timed-out widgets report once they finish or are cancelled). */
+    public Map<String, Duration> getWidgetTimings() {
+        return Map.copyOf(widgetTimings);
+    }
+
+    /** Widgets that failed or timed out and were replaced by a placeholder. */
+    public long getWidgetFailures() {
+        return widgetFailures.get();
+    }
+
+    /** Page views served from the cached snapshot. */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** Page views that had to wait for a recompute. */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /** Recomputes, foreground and background. */
+    public long getRefreshes() {
+        return refreshes.get();
+    }
+}
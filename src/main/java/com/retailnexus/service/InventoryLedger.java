@@ -0,0 +1,390 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.Batch;
+import com.retailnexus.entity.InventoryTransaction;
+import com.retailnexus.repository.InventoryTransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the {@link InventoryTransaction} ledger rows of stock changes. By default each row is inserted in the
+ * transaction that changes the stock. With {@code retailnexus.ledger.async=true} the SALE rows leave that
+ * transaction (other rows, e.g. RESTOCK, are rare and stay in it):
+ * <ul>
+ *   <li>Just before it commits, its rows are appended to a local spill file (see {@link LedgerSpillFile}).</li>
+ *   <li>Once it has committed, they go on a bounded queue. A background writer drains the queue in JDBC batches.</li>
+ *   <li>If the queue is full, the committing transaction waits up to {@code offer-timeout} for room. After
+ *       that it inserts its own rows, as in the default mode.</li>
+ *   <li>At startup, rows a crash left in the spill file are inserted.</li>
+ * </ul>
+ * Ids are taken from the ledger's sequence in the same blocks Hibernate uses. A row carries its id from the
+ * start, so replay skips rows that were already written. The ledger then lags the batches table by up to
+ * {@code flush-interval}; call {@link #flush} before comparing the two.
+ */
+@Service
+public class InventoryLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryLedger.class);
+    private static final String SEQUENCE = "inventory_transactions_seq";
+    /** Must match allocationSize of InventoryTransaction's @SequenceGenerator. */
+    private static final int ID_ALLOCATION_SIZE = 50;
+    private static final int REPLAY_CHUNK = 500;
+    private static final String INSERT = "INSERT INTO inventory_transactions"
+        + " (id, batch_id, type, quantity_change, transaction_date, reference) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final InventoryTransactionRepository transactionRepository;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactions;
+    private final String nextIdBlockSql;
+    private final boolean async;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+    private final Path spillPath;
+    private final LedgerSpillFile spill;
+    private final BlockingQueue<LedgerSpillFile.Row> queue;
+    private final Semaphore room;
+    private final AtomicLong transactionIds = new AtomicLong();
+    private final Counter fallbacks;
+    private final Timer writes;
+    private final Timer spills;
+    private final ReentrantLock idLock = new ReentrantLock();
+    private long nextId;
+    private long lastId = -1;
+    private volatile boolean running;
+    private Thread writer;
+
+    public InventoryLedger(InventoryTransactionRepository transactionRepository, JdbcTemplate jdbc,
+                           PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+                           MeterRegistry meterRegistry,
+                           @Value("${retailnexus.ledger.async:false}") boolean async,
+                           @Value("${retailnexus.ledger.queue-capacity:20000}") int queueCapacity,
+                           @Value("${retailnexus.ledger.batch-size:500}") int batchSize,
+                           @Value("${retailnexus.ledger.flush-interval:PT0.2S}") Duration flushInterval,
+                           @Value("${retailnexus.ledger.offer-timeout:PT1S}") Duration offerTimeout,
+                           @Value("${retailnexus.ledger.spill-file:./data/ledger-spill.bin}") Path spillPath,
+                           @Value("${retailnexus.ledger.spill-sync:true}") boolean spillSync) {
+        this.transactionRepository = transactionRepository;
+        this.jdbc = jdbc;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.nextIdBlockSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+            .getDialect().getSequenceSupport().getSequenceNextValString(SEQUENCE);
+        this.async = async;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+        this.spillPath = spillPath;
+        this.spill = new LedgerSpillFile(spillPath, spillSync);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.room = new Semaphore(queueCapacity);
+        Gauge.builder("retailnexus.ledger.queue", queue, Collection::size)
+            .description("Ledger rows committed and waiting for the background writer")
+            .baseUnit("rows")
+            .register(meterRegistry);
+        this.fallbacks = Counter.builder("retailnexus.ledger.fallbacks")
+            .description("Transactions that inserted their own ledger rows because the queue stayed full")
+            .register(meterRegistry);
+        this.writes = Timer.builder("retailnexus.ledger.write")
+            .description("Batches inserted by the background ledger writer")
+            .register(meterRegistry);
+        this.spills = Timer.builder("retailnexus.ledger.spill")
+            .description("Appending a committing transaction's ledger rows to the spill file, including the sync")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    /** Insert what a crash left in the spill file, then start the writer (async mode only). */
+    @PostConstruct
+    void start() throws IOException {
+        replay();
+        if (!async) return;
+        running = true;
+        writer = new Thread(this::drain, "ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Inventory ledger writes asynchronously (spill file {})", spillPath.toAbsolutePath());
+    }
+
+    /**
+     * Ledger row for {@code quantityChange} units of {@code batch}, written as configured. Only SALE rows are
+     * written asynchronously: replay can check a sale row against its sale, but nothing proves that another
+     * change committed.
+     */
+    public void record(Batch batch, InventoryTransaction.TransactionType type, int quantityChange, String reference) {
+        if (!async || type != InventoryTransaction.TransactionType.SALE
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            InventoryTransaction tx = new InventoryTransaction();
+            tx.setBatch(batch);
+            tx.setType(type);
+            tx.setQuantityChange(quantityChange);
+            tx.setReference(reference);
+            transactionRepository.save(tx);
+            return;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending(transactionIds.incrementAndGet());
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.rows.add(new LedgerSpillFile.Row(nextId(), batch.getId(), type, quantityChange, LocalDateTime.now(), reference));
+    }
+
+    /** Rows of one transaction, held until it commits. */
+    private final class Pending implements TransactionSynchronization {
+        private final long txn;
+        private final List<LedgerSpillFile.Row> rows = new ArrayList<>();
+        private boolean spilled;
+
+        Pending(long txn) {
+            this.txn = txn;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            boolean acquired;
+            try {
+                acquired = room.tryAcquire(rows.size(), offerTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            if (acquired) {
+                try {
+                    spills.record(() -> spill.append(txn, rows));
+                    spilled = true;
+                    return;
+                } catch (RuntimeException e) {
+                    room.release(rows.size());
+                    log.error("Could not spill ledger rows; writing them in the transaction", e);
+                }
+            }
+            fallbacks.increment();
+            insert(rows);
+        }
+
+        @Override
+        public void afterCommit() {
+            if (!spilled) return;
+            try {
+                spill.mark(txn, true, rows.size());
+            } catch (RuntimeException e) {
+                log.warn("Could not mark ledger rows committed; replay will check the sales instead", e);
+            }
+            queue.addAll(rows); // room was reserved in beforeCommit
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(InventoryLedger.this);
+            if (!spilled || status == STATUS_COMMITTED) return;
+            room.release(rows.size());
+            try {
+                spill.mark(txn, false, rows.size());
+            } catch (RuntimeException e) {
+                log.warn("Could not mark ledger rows rolled back", e);
+            }
+        }
+    }
+
+    /**
+     * Next id from a block of {@link #ID_ALLOCATION_SIZE}, like Hibernate's pooled optimizer, so the two never clash.
+     * A {@link ReentrantLock}, not {@code synchronized}: every 50th call queries the sequence while holding it.
+     */
+    private long nextId() {
+        idLock.lock();
+        try {
+            if (nextId > lastId) {
+                long high = jdbc.queryForObject(nextIdBlockSql, Long.class);
+                lastId = high;
+                nextId = Math.max(1, high - ID_ALLOCATION_SIZE + 1);
+            }
+            return nextId++;
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    private void insert(List<LedgerSpillFile.Row> rows) {
+        jdbc.batchUpdate(INSERT, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.id());
+            ps.setLong(2, row.batchId());
+            ps.setString(3, row.type().name());
+            ps.setInt(4, row.quantityChange());
+            ps.setTimestamp(5, Timestamp.valueOf(row.transactionDate()));
+            ps.setString(6, row.reference());
+        });
+    }
+
+    /** Background writer: insert queued rows in batches, retrying a failed batch until it is written or shutdown. */
+    private void drain() {
+        List<LedgerSpillFile.Row> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    LedgerSpillFile.Row first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    fill(batch);
+                }
+                writes.record(() -> transactions.executeWithoutResult(status -> insert(batch)));
+                spill.written(batch.size());
+                room.release(batch.size());
+                batch.clear();
+                if (queue.isEmpty()) spill.truncateIfSettled();
+            } catch (InterruptedException e) {
+                if (!running) break;
+            } catch (Exception e) {
+                log.error("Ledger writer failed to insert {} rows; retrying", batch.size(), e);
+                if (!running) break; // left in the spill file for the next start
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException ignored) {
+                    // shutting down: loop condition decides
+                }
+            }
+        }
+    }
+
+    /** Add queued rows to {@code batch} until it holds {@code batchSize}, {@code flushInterval} is up or shutdown. */
+    private void fill(List<LedgerSpillFile.Row> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushInterval.toNanos();
+        queue.drainTo(batch, batchSize - batch.size());
+        while (running && batch.size() < batchSize) {
+            long wait = deadline - System.nanoTime();
+            if (wait <= 0) break;
+            LedgerSpillFile.Row next = queue.poll(wait, TimeUnit.NANOSECONDS);
+            if (next == null) break;
+            batch.add(next);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    /** Wait until every committed row is in the database; false if {@code timeout} passed first. */
+    public boolean flush(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (spill.unsettled() > 0) {
+            if (System.nanoTime() > deadline) return false;
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException, IOException {
+        if (writer != null) {
+            running = false;
+            writer.join(Duration.ofSeconds(30).toMillis());
+            if (writer.isAlive()) writer.interrupt();
+        }
+        if (spill.unsettled() > 0) {
+            log.warn("{} ledger rows not written at shutdown; they are replayed at the next start", spill.unsettled());
+        }
+        spill.truncateIfSettled();
+        spill.close();
+    }
+
+    /**
+     * Insert rows left in the spill file by a crash. Rows of a transaction marked rolled back are dropped. Any
+     * other transaction counts as committed if its sale exists, or, without a sale reference, only if it is
+     * marked committed and its batches exist. Rows already in the table, or whose batch has since gone, are skipped.
+     */
+    private void replay() throws IOException {
+        LedgerSpillFile.Contents contents = spill.read();
+        if (contents.isEmpty()) {
+            spill.truncateIfSettled();
+            return;
+        }
+        List<LedgerSpillFile.Row> candidates = new ArrayList<>();
+        int notCommitted = 0;
+        for (Map.Entry<Long, List<LedgerSpillFile.Row>> txn : contents.rows().entrySet()) {
+            // A commit marker is not proof: a database that syncs lazily (H2) can lose its last commits in a crash
+            Boolean mark = contents.committed().get(txn.getKey());
+            if (!Boolean.FALSE.equals(mark) && committedByData(txn.getValue(), Boolean.TRUE.equals(mark))) {
+                candidates.addAll(txn.getValue());
+            } else {
+                notCommitted += txn.getValue().size();
+            }
+        }
+        Set<Long> written = existing("SELECT id FROM inventory_transactions WHERE id IN (%s)",
+            candidates.stream().map(LedgerSpillFile.Row::id).toList());
+        Set<Long> batches = existing("SELECT id FROM batches WHERE id IN (%s)",
+            candidates.stream().map(LedgerSpillFile.Row::batchId).distinct().toList());
+        List<LedgerSpillFile.Row> missing = candidates.stream()
+            .filter(r -> !written.contains(r.id()) && batches.contains(r.batchId())).toList();
+        transactions.executeWithoutResult(status -> {
+            for (int from = 0; from < missing.size(); from += REPLAY_CHUNK) {
+                insert(missing.subList(from, Math.min(missing.size(), from + REPLAY_CHUNK)));
+            }
+        });
+        log.warn("Ledger spill file {}: replayed {} rows ({} already written, {} not committed, {} of deleted batches)",
+            spillPath.toAbsolutePath(), missing.size(), written.size(), notCommitted,
+            candidates.size() - written.size() - missing.size());
+        spill.truncateIfSettled();
+    }
+
+    /**
+     * Whether the data shows the transaction committed. Only a sale proves that. A change without a sale
+     * reference (spilled by an older version; RESTOCK rows are no longer spilled) also needs its commit marker.
+     */
+    private boolean committedByData(List<LedgerSpillFile.Row> rows, boolean markedCommitted) {
+        Set<Long> sales = rows.stream().map(LedgerSpillFile.Row::reference)
+            .filter(r -> r != null && r.startsWith("SALE-"))
+            .map(r -> Long.valueOf(r.substring("SALE-".length()))).collect(Collectors.toSet());
+        if (!sales.isEmpty()) {
+            return existing("SELECT id FROM sales WHERE id IN (%s)", List.copyOf(sales)).size() == sales.size();
+        }
+        if (!markedCommitted) return false;
+        Set<Long> batchIds = rows.stream().map(LedgerSpillFile.Row::batchId).collect(Collectors.toSet());
+        return existing("SELECT id FROM batches WHERE id IN (%s)", List.copyOf(batchIds)).size() == batchIds.size();
+    }
+
+    /** Which of {@code ids} the query ({@code %s} = placeholders) returns. */
+    private Set<Long> existing(String sql, List<Long> ids) {
+        Set<Long> found = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += REPLAY_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + REPLAY_CHUNK));
+            String placeholders = String.join(",", java.util.Collections.nCopies(chunk.size(), "?"));
+            found.addAll(jdbc.queryForList(String.format(sql, placeholders), Long.class, chunk.toArray()));
+        }
+        return found;
+    }
+}
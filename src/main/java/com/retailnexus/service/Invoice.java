@@ -0,0 +1,33 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.Sale;
+import com.retailnexus.entity.SaleItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Invoice payload of a completed sale, as returned by the checkout API (same content as /billing/invoice/{id}). */
+public record Invoice(Long saleId, LocalDateTime saleDate, Sale.PaymentMethod paymentMethod, String cashier,
+                      List<Line> items, BigDecimal totalAmount, BigDecimal totalGst, BigDecimal totalProfit) {
+
+    public record Line(Long productId, String productName, String batchNumber, BigDecimal quantity, String unit,
+                       BigDecimal unitPrice, BigDecimal gstPercent, BigDecimal gstAmount, BigDecimal totalPrice) {}
+
+    /**
+     * Build from a sale whose items, products and batches are loaded (e.g. the one returned by createSale), sold by
+     * the user named {@code cashier}. The name is passed in so the sale's {@code soldBy} reference is not loaded.
+     */
+    public static Invoice of(Sale sale, String cashier) {
+        List<Line> lines = sale.getItems().stream().map(Invoice::line).toList();
+        return new Invoice(sale.getId(), sale.getSaleDate(), sale.getPaymentMethod(), cashier,
+            lines, sale.getTotalAmount(), sale.getTotalGst(), sale.getTotalProfit());
+    }
+
+    private static Line line(SaleItem item) {
+        return new Line(item.getProduct().getId(), item.getProduct().getName(),
+            item.getBatch() != null ? item.getBatch().getBatchNumber() : null, item.getQuantity(),
+            item.getProduct().getUnit() != null ? item.getProduct().getUnitLabel() : "pcs", item.getUnitPrice(),
+            item.getGstPercent(), item.getGstAmount(), item.getTotalPrice());
+    }
+}
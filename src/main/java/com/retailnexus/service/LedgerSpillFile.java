@@ -0,0 +1,221 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.InventoryTransaction;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of ledger rows that {@link InventoryLedger} has accepted but not yet written. Each record is
+ * framed as {@code [length][payload][crc32]}, so a record torn by a crash is detected and ignored. A
+ * transaction's rows are appended (and optionally synced) before it commits. A marker follows once it has
+ * committed or rolled back. The file is emptied whenever every row in it has been written or rolled back.
+ * Guarded by a {@link ReentrantLock} rather than {@code synchronized}: append syncs to disk while holding it, and
+ * a virtual thread waiting on a monitor would pin its carrier.
+ */
+final class LedgerSpillFile {
+
+    private static final byte ROW = 'R';
+    private static final byte COMMITTED = 'C';
+    private static final byte ROLLED_BACK = 'A';
+
+    /** A ledger row with its id already assigned, so writing it twice can be detected. */
+    record Row(long id, long batchId, InventoryTransaction.TransactionType type, int quantityChange,
+               LocalDateTime transactionDate, String reference) {}
+
+    /** Rows found in the file, by transaction, and how each transaction ended (absent = unknown, e.g. a crash). */
+    record Contents(Map<Long, List<Row>> rows, Map<Long, Boolean> committed) {
+        boolean isEmpty() {
+            return rows.isEmpty();
+        }
+    }
+
+    private final Path path;
+    private final boolean sync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel channel;
+    /** Rows appended and not yet written or rolled back. */
+    private long unsettled;
+
+    LedgerSpillFile(Path path, boolean sync) {
+        this.path = path;
+        this.sync = sync;
+    }
+
+    /** Everything in the file, up to the first torn or corrupt record. */
+    Contents read() throws IOException {
+        lock.lock();
+        try {
+            Map<Long, List<Row>> rows = new HashMap<>();
+            Map<Long, Boolean> committed = new HashMap<>();
+            if (!Files.exists(path)) return new Contents(rows, committed);
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+                while (true) {
+                    byte[] payload;
+                    try {
+                        int length = in.readInt();
+                        if (length <= 0 || length > 1 << 20) break;
+                        payload = in.readNBytes(length);
+                        if (payload.length < length || in.readLong() != crc(payload)) break;
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                    byte kind = record.readByte();
+                    long txn = record.readLong();
+                    if (kind == ROW) {
+                        rows.computeIfAbsent(txn, t -> new ArrayList<>()).add(new Row(record.readLong(), record.readLong(),
+                            InventoryTransaction.TransactionType.valueOf(record.readUTF()), record.readInt(),
+                            LocalDateTime.parse(record.readUTF()), record.readBoolean() ? record.readUTF() : null));
+                    } else {
+                        committed.put(txn, kind == COMMITTED);
+                    }
+                }
+            }
+            return new Contents(rows, committed);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Append the rows of transaction {@code txn}, synced to disk if configured, before it commits. */
+    void append(long txn, List<Row> rows) {
+        ByteArrayOutputStream frames = new ByteArrayOutputStream(rows.size() * 96);
+        for (Row row : rows) {
+            frame(frames, out -> {
+                out.writeByte(ROW);
+                out.writeLong(txn);
+                out.writeLong(row.id());
+                out.writeLong(row.batchId());
+                out.writeUTF(row.type().name());
+                out.writeInt(row.quantityChange());
+                out.writeUTF(row.transactionDate().toString());
+                out.writeBoolean(row.reference() != null);
+                if (row.reference() != null) out.writeUTF(row.reference());
+            });
+        }
+        lock.lock();
+        try {
+            write(frames.toByteArray(), sync);
+            unsettled += rows.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Record how transaction {@code txn} ended. Not synced: a lost marker is resolved at replay. */
+    void mark(long txn, boolean committed, int rows) {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(24);
+        frame(frame, out -> {
+            out.writeByte(committed ? COMMITTED : ROLLED_BACK);
+            out.writeLong(txn);
+        });
+        lock.lock();
+        try {
+            write(frame.toByteArray(), false);
+            if (!committed) unsettled -= rows;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** {@code rows} appended rows are now in the database. */
+    void written(int rows) {
+        lock.lock();
+        try {
+            unsettled -= rows;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long unsettled() {
+        lock.lock();
+        try {
+            return unsettled;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Empty the file if nothing in it is still waiting to be written; returns whether it is empty. */
+    boolean truncateIfSettled() throws IOException {
+        lock.lock();
+        try {
+            if (unsettled > 0) return false;
+            if (channel != null) {
+                channel.truncate(0);
+            } else if (Files.exists(path)) {
+                Files.write(path, new byte[0]);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() throws IOException {
+        lock.lock();
+        try {
+            if (channel != null) channel.close();
+            channel = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(byte[] bytes, boolean force) {
+        try {
+            if (channel == null) {
+                if (path.getParent() != null) Files.createDirectories(path.getParent());
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            if (force) channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write ledger spill file " + path, e);
+        }
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static void frame(ByteArrayOutputStream target, RecordWriter writer) {
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(96);
+            writer.write(new DataOutputStream(payload));
+            byte[] bytes = payload.toByteArray();
+            DataOutputStream out = new DataOutputStream(target);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.writeLong(crc(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in-memory streams do not throw
+        }
+    }
+
+    private static long crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+}
@@ -1,45 +1,261 @@
 package com.retailnexus.service;
 
-import com.retailnexus.entity.Sale;
+import com.openhtmltopdf.extend.FSCacheEx;
+import com.openhtmltopdf.extend.FSCacheValue;
+import com.openhtmltopdf.extend.FSSupplier;
+import com.openhtmltopdf.extend.impl.FSDefaultCacheStore;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import com.retailnexus.repository.SaleSummaryRow;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
+/**
+ * Renders report PDFs straight to an output stream. Rows are fetched and laid out in parts of
+ * {@link #ROWS_PER_PART}; a report with more than one part is rendered part by part into temp files and merged
+ * with PDFBox using scratch files, so heap use is bounded by one part regardless of report size.
+ * <p>
+ * The stylesheet (and the optional report font) are loaded once at startup and shared by every render, together
+ * with a font-metrics cache; a warm-up render at startup loads the renderer's classes and PDFBox's base fonts.
+ * Each report is timed as {@code retailnexus.report.pdf} (tagged report and outcome), queries included.
+ */
 @Service
 public class PdfReportService {
 
+    private static final Logger log = LoggerFactory.getLogger(PdfReportService.class);
     private static final DateTimeFormatter DF = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    /** Rows per rendered part; openhtmltopdf keeps one part's DOM and layout in memory. */
+    static final int ROWS_PER_PART = 1000;
+    private static final String FONT_FAMILY = "ReportFont";
 
-    public byte[] generateSalesReportPdf(LocalDate date, List<Sale> sales, BigDecimal total) {
-        StringBuilder html = new StringBuilder();
-        html.append("<!DOCTYPE html><html><head><meta charset='UTF-8'><style>");
-        html.append("body{font-family:Helvetica,sans-serif;margin:20px;} table{border-collapse:collapse;width:100%;} th,td{border:1px solid #ddd;padding:8px;}");
-        html.append("</style></head><body>");
-        html.append("<h1>Daily Sales Report - ").append(date).append("</h1>");
-        html.append("<table><tr><th>Sale ID</th><th>Time</th><th>Total</th></tr>");
-        for (Sale s : sales) {
-            html.append("<tr>")
-                .append("<td>").append(s.getId()).append("</td>")
-                .append("<td>").append(s.getSaleDate().format(DF)).append("</td>")
-                .append("<td>").append(s.getTotalAmount()).append("</td>")
-                .append("</tr>");
-        }
-        html.append("</table>");
-        html.append("<p><strong>Total Sales: ").append(total != null ? total : BigDecimal.ZERO).append("</strong></p>");
-        html.append("</body></html>");
-
-        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-            com.openhtmltopdf.pdfboxout.PdfRendererBuilder builder = new com.openhtmltopdf.pdfboxout.PdfRendererBuilder();
-            builder.toStream(os);
-            builder.withHtmlContent(html.toString(), null);
-            builder.run();
-            return os.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("PDF generation failed", e);
+    private final ReportService reportService;
+    private final MeterRegistry meterRegistry;
+    private final String css;
+    /** TrueType font bytes for {@code retailnexus.pdf.font}, or null to use the built-in Helvetica. */
+    private final byte[] font;
+    private final FSCacheEx<String, FSCacheValue> fontMetrics = new FSDefaultCacheStore();
+
+    public PdfReportService(ReportService reportService, MeterRegistry meterRegistry,
+                            @Value("${retailnexus.pdf.font:}") String fontPath) {
+        this.reportService = reportService;
+        this.meterRegistry = meterRegistry;
+        try (InputStream in = new ClassPathResource("reports/report-pdf.css").getInputStream()) {
+            this.css = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            this.font = fontPath.isBlank() ? null : Files.readAllBytes(Path.of(fontPath));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load PDF report resources", e);
         }
     }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        try {
+            render(partHtml("Warm-up", null, List.of(new Column("Column", false)), List.of(), null),
+                OutputStream.nullOutputStream());
+            log.info("PDF renderer warmed up in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("PDF renderer warm-up failed", e);
+        }
+    }
+
+    public void writeDailySalesReport(LocalDate date, OutputStream out) throws IOException {
+        timed("daily", () -> writeSalesReport("Daily Sales Report - " + date, date, date, out));
+    }
+
+    public void writeMonthlySalesReport(YearMonth month, OutputStream out) throws IOException {
+        timed("monthly", () -> writeSalesReport("Monthly Sales Report - " + month, month.atDay(1), month.atEndOfMonth(), out));
+    }
+
+    public void writeLowStockReport(int threshold, OutputStream out) throws IOException {
+        timed("low-stock", () -> writeStockReport("Low Stock Report", "Products with stock at or below " + threshold,
+            reportService.lowStockReport(threshold), out));
+    }
+
+    public void writeDeadStockReport(OutputStream out) throws IOException {
+        timed("dead-stock", () -> writeStockReport("Dead Stock Report", "Products in stock with no sales in the last 30 days",
+            reportService.deadStockReport(), out));
+    }
+
+    private interface ReportWriter {
+        void write() throws IOException;
+    }
+
+    private void timed(String report, ReportWriter writer) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            writer.write();
+            outcome = "success";
+        } finally {
+            sample.stop(meterRegistry.timer("retailnexus.report.pdf", "report", report, "outcome", outcome));
+        }
+    }
+
+    private void writeSalesReport(String title, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        BigDecimal total = reportService.totalBetween(from, to);
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        List<Column> columns = List.of(new Column("Sale ID", false), new Column("Time", false),
+            new Column("Payment", false), new Column("Total", true), new Column("Profit", true));
+        Supplier<List<String[]>> parts = new Supplier<>() {
+            private SaleSummaryRow last;
+
+            @Override
+            public List<String[]> get() {
+                List<SaleSummaryRow> page = reportService.salesPage(start, end, last, ROWS_PER_PART);
+                if (!page.isEmpty()) last = page.get(page.size() - 1);
+                List<String[]> rows = new ArrayList<>(page.size());
+                for (SaleSummaryRow s : page) {
+                    rows.add(new String[] { String.valueOf(s.id()), s.saleDate().format(DF),
+                        s.paymentMethod() != null ? s.paymentMethod().getDisplayName() : "",
+                        String.valueOf(s.totalAmount()), String.valueOf(s.totalProfit()) });
+                }
+                return rows;
+            }
+        };
+        writeTable(title, null, columns, parts, "Total Sales: " + (total != null ? total : BigDecimal.ZERO), out);
+    }
+
+    private void writeStockReport(String title, String subtitle, List<ReportService.ProductStockDto> items,
+                                  OutputStream out) throws IOException {
+        List<Column> columns = List.of(new Column("Product", false), new Column("Category", false), new Column("Stock", true));
+        List<String[]> rows = new ArrayList<>(items.size());
+        for (ReportService.ProductStockDto item : items) {
+            rows.add(new String[] { item.getProduct().getName(), item.getProduct().getCategory(), String.valueOf(item.getStock()) });
+        }
+        Supplier<List<String[]>> parts = new Supplier<>() {
+            private int offset;
+
+            @Override
+            public List<String[]> get() {
+                List<String[]> part = rows.subList(offset, Math.min(rows.size(), offset + ROWS_PER_PART));
+                offset += part.size();
+                return part;
+            }
+        };
+        writeTable(title, subtitle, columns, parts, items.size() + " products", out);
+    }
+
+    /**
+     * Render a titled table whose rows come from {@code parts} (an empty list ends the table). A single part is
+     * rendered directly into {@code out}; larger tables go through temp files and a merge.
+     */
+    private void writeTable(String title, String subtitle, List<Column> columns, Supplier<List<String[]>> parts,
+                            String summary, OutputStream out) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try {
+            List<String[]> current = parts.get();
+            boolean first = true;
+            while (true) {
+                List<String[]> next = current.size() < ROWS_PER_PART ? List.of() : parts.get();
+                boolean last = next.isEmpty();
+                String html = partHtml(first ? title : null, first ? subtitle : null, columns, current, last ? summary : null);
+                if (first && last) {
+                    render(html, out);
+                    return;
+                }
+                Path file = Files.createTempFile("retailnexus-report-", ".pdf");
+                files.add(file);
+                try (OutputStream os = Files.newOutputStream(file)) {
+                    render(html, os);
+                }
+                if (last) break;
+                current = next;
+                first = false;
+            }
+            PDFMergerUtility merger = new PDFMergerUtility();
+            for (Path file : files) {
+                merger.addSource(file.toFile());
+            }
+            merger.setDestinationStream(out);
+            merger.mergeDocuments(MemoryUsageSetting.setupTempFileOnly());
+        } finally {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private String partHtml(String title, String subtitle, List<Column> columns, List<String[]> rows, String summary) {
+        StringBuilder html = new StringBuilder(512 + rows.size() * 160);
+        html.append("<!DOCTYPE html><html><head><meta charset=\"UTF-8\"/><style>").append(css).append("</style></head><body>");
+        if (title != null) html.append("<h1>").append(escape(title)).append("</h1>");
+        if (subtitle != null) html.append("<p class=\"subtitle\">").append(escape(subtitle)).append("</p>");
+        if (!rows.isEmpty() || title != null) {
+            html.append("<table><thead><tr>");
+            for (Column c : columns) {
+                html.append(c.numeric() ? "<th class=\"num\">" : "<th>").append(escape(c.name())).append("</th>");
+            }
+            html.append("</tr></thead><tbody>");
+            for (String[] row : rows) {
+                html.append("<tr>");
+                for (int i = 0; i < columns.size(); i++) {
+                    html.append(columns.get(i).numeric() ? "<td class=\"num\">" : "<td>").append(escape(row[i])).append("</td>");
+                }
+                html.append("</tr>");
+            }
+            if (rows.isEmpty()) {
+                html.append("<tr><td colspan=\"").append(columns.size()).append("\">No records</td></tr>");
+            }
+            html.append("</tbody></table>");
+        }
+        if (summary != null) html.append("<p class=\"summary\">").append(escape(summary)).append("</p>");
+        return html.append("</body></html>").toString();
+    }
+
+    private void render(String html, OutputStream out) throws IOException {
+        PdfRendererBuilder builder = new PdfRendererBuilder();
+        builder.useFastMode();
+        builder.useCacheStore(PdfRendererBuilder.CacheStore.PDF_FONT_METRICS, fontMetrics);
+        if (font != null) {
+            builder.useFont((FSSupplier<InputStream>) () -> new ByteArrayInputStream(font), FONT_FAMILY);
+        }
+        builder.withHtmlContent(html, null);
+        builder.toStream(out);
+        builder.run();
+    }
+
+    private static String escape(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '&' -> sb.append("&amp;");
+                case '"' -> sb.append("&quot;");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private record Column(String name, boolean numeric) {}
 }
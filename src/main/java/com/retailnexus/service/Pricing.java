@@ -0,0 +1,122 @@
+package com.retailnexus.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Sale arithmetic in {@code long} fixed point. Checkout, cart previews and the stored amounts that reports sum
+ * all come from here. Units:
+ * <ul>
+ *   <li>prices and costs are in paise;</li>
+ *   <li>quantities are in thousandths of a unit;</li>
+ *   <li>GST rates are in hundredths of a percent;</li>
+ *   <li>exact line amounts are in thousandths of a paisa (paise times thousandths of a unit), so a line's subtotal
+ *       needs no rounding.</li>
+ * </ul>
+ * Rounding is half-up (away from zero), as in the columns the amounts are stored in:
+ * <ul>
+ *   <li>a line's GST is rounded to paise;</li>
+ *   <li>its total and profit are exact, and are rounded to paise only when stored;</li>
+ *   <li>a sale's total and profit are the exact sums of its lines, rounded once;</li>
+ *   <li>a sale's GST is the sum of its lines' rounded GST.</li>
+ * </ul>
+ * So a sale total can differ from the sum of its stored line totals by up to half a paisa per line. Convert
+ * from and to {@link BigDecimal} only at the edges, with {@link #paise}, {@link #milli}, {@link #hundredths}
+ * and {@link #money}. Amounts too large for a {@code long} throw {@link ArithmeticException}.
+ */
+public final class Pricing {
+
+    private static final long EXACT_PER_PAISA = 1_000;
+    /** Subtotal times GST rate per paisa of GST: 10^3 (thousandths) x 10^2 (percent) x 10^2 (hundredths of a percent). */
+    private static final long GST_DIVISOR = 10_000_000;
+
+    private Pricing() {}
+
+    /** One priced line: {@code gst} in paise, {@code exactTotal} and {@code exactProfit} in thousandths of a paisa. */
+    public record Line(long gst, long exactTotal, long exactProfit) {
+
+        /** Total in paise, as stored on the sale item. */
+        public long total() {
+            return toPaise(exactTotal);
+        }
+
+        /** Profit in paise, as stored on the sale item. */
+        public long profit() {
+            return toPaise(exactProfit);
+        }
+    }
+
+    /**
+     * {@code quantity} at {@code unitPrice} plus {@code gstRate} GST. The GST is rounded to paise and the
+     * subtotal is not rounded. Profit is the amount before GST, less {@code unitCost} for each unit.
+     */
+    public static Line line(long unitPrice, long gstRate, long quantity, long unitCost) {
+        long subtotal = Math.multiplyExact(unitPrice, quantity);
+        // subtotal x rate / 10^7 without overflowing: split the subtotal so only the remainder is multiplied out in full
+        long gst = Math.addExact(Math.multiplyExact(subtotal / GST_DIVISOR, gstRate),
+            roundHalfUp(Math.multiplyExact(subtotal % GST_DIVISOR, gstRate), GST_DIVISOR));
+        long exactTotal = Math.addExact(subtotal, Math.multiplyExact(gst, EXACT_PER_PAISA));
+        long exactProfit = Math.subtractExact(subtotal, Math.multiplyExact(unitCost, quantity));
+        return new Line(gst, exactTotal, exactProfit);
+    }
+
+    /** Running totals of a sale's lines. Mutable: one per sale or cart, not shared between threads. */
+    public static final class Totals {
+        private long gst;
+        private long exactTotal;
+        private long exactProfit;
+
+        public void add(Line line) {
+            gst = Math.addExact(gst, line.gst());
+            exactTotal = Math.addExact(exactTotal, line.exactTotal());
+            exactProfit = Math.addExact(exactProfit, line.exactProfit());
+        }
+
+        /** Sum of the lines' GST, in paise. */
+        public long gst() {
+            return gst;
+        }
+
+        /** Exact sum of the line totals, rounded once to paise. */
+        public long total() {
+            return toPaise(exactTotal);
+        }
+
+        /** Exact sum of the line profits, rounded once to paise. */
+        public long profit() {
+            return toPaise(exactProfit);
+        }
+    }
+
+    /** Rupees to paise. More than 2 decimals are rounded half-up, as the price columns would store them. */
+    public static long paise(BigDecimal rupees) {
+        return rupees.setScale(2, RoundingMode.HALF_UP).scaleByPowerOfTen(2).longValueExact();
+    }
+
+    /** Quantity in thousandths of a unit. More than 3 decimals are rounded half-up, as the quantity column would. */
+    public static long milli(BigDecimal quantity) {
+        return quantity.setScale(3, RoundingMode.HALF_UP).scaleByPowerOfTen(3).longValueExact();
+    }
+
+    /** Percentage in hundredths of a percent (18% = 1800). More than 2 decimals are rounded half-up. */
+    public static long hundredths(BigDecimal percent) {
+        return percent.setScale(2, RoundingMode.HALF_UP).scaleByPowerOfTen(2).longValueExact();
+    }
+
+    /** Paise as rupees at scale 2, for entities and responses. */
+    public static BigDecimal money(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    private static long toPaise(long exact) {
+        return roundHalfUp(exact, EXACT_PER_PAISA);
+    }
+
+    /** {@code value / divisor} (divisor > 0) rounded half away from zero, like {@link RoundingMode#HALF_UP}. */
+    private static long roundHalfUp(long value, long divisor) {
+        long quotient = value / divisor;
+        long remainder = value % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) quotient += Long.signum(value);
+        return quotient;
+    }
+}
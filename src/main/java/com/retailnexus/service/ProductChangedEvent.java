@@ -0,0 +1,5 @@
+package com.retailnexus.service;
+
+/** Published by {@link ProductService#save} and {@link ProductService#deleteById}; listeners should react after commit. */
+public record ProductChangedEvent(Long productId) {
+}
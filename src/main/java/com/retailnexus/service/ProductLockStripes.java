@@ -0,0 +1,68 @@
+package com.retailnexus.service;
+
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped per-product locks that serialize checkouts touching the same products within this JVM, so a till
+ * never plans its batch allocation from stock another till is about to change. Locks are held until the
+ * surrounding transaction completes, and stripes are always taken in ascending order to avoid deadlocks.
+ */
+@Component
+public class ProductLockStripes {
+
+    private static final int STRIPES = 64;
+    private static final long LOCK_TIMEOUT_SECONDS = 10;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public ProductLockStripes() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /** Lock the stripes of all given products until the current transaction commits or rolls back. */
+    public void lockUntilCompletion(Collection<Long> productIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Product locks require an active transaction");
+        }
+        int[] stripes = productIds.stream().mapToInt(ProductLockStripes::stripe).distinct().sorted().toArray();
+        int acquired = 0;
+        try {
+            for (int stripe : stripes) {
+                if (!locks[stripe].tryLock(LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    throw new CannotAcquireLockException("Timed out waiting for stock lock; please retry the sale");
+                }
+                acquired++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted while waiting for stock lock", e);
+        } finally {
+            if (acquired < stripes.length) unlock(stripes, acquired);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlock(stripes, stripes.length);
+            }
+        });
+    }
+
+    private void unlock(int[] stripes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            locks[stripes[i]].unlock();
+        }
+    }
+
+    private static int stripe(Long productId) {
+        return (int) Math.floorMod(productId * 0x9E3779B97F4A7C15L >>> 32, STRIPES);
+    }
+}
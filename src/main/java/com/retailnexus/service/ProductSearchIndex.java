@@ -0,0 +1,264 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.Product;
+import com.retailnexus.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory search index over product name, barcode and category. Every field contributes its trigrams and the
+ * one- and two-character prefixes of its words; a query term of three or more characters is answered by
+ * intersecting trigram postings and checking the survivors with {@code contains}, a shorter term by the prefix
+ * postings. All terms must match (in any field). Hits are ranked exact barcode, then name prefix, then word
+ * prefix, then substring, so scanning a barcode or typing the start of a name puts the product first.
+ * <p>
+ * Loaded once the application is ready and updated per product after {@link ProductService} commits a change.
+ */
+@Service
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private final ProductRepository productRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, Set<Long>> trigrams = new HashMap<>();
+    private final Map<String, Set<Long>> prefixes = new HashMap<>();
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /** Search result; carries what the billing screen needs to add the product to a cart. */
+    public record Hit(Long id, String name, String barcode, String category, BigDecimal sellingPrice,
+                      BigDecimal gstPercent, String unit) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Product> products = productRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            trigrams.clear();
+            prefixes.clear();
+            products.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index loaded for {} products", products.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        productRepository.findById(event.productId()).ifPresentOrElse(this::put, () -> remove(event.productId()));
+    }
+
+    /** Index {@code product}, replacing any previous entry with the same id. */
+    public void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best {@code limit} products matching every term of {@code query}, optionally restricted to one category
+     * (exact, case-insensitive). A blank query matches nothing.
+     */
+    public List<Hit> search(String query, String category, int limit) {
+        List<String> terms = words(normalize(query));
+        if (terms.isEmpty() || limit <= 0) return List.of();
+        String phrase = String.join(" ", terms);
+        String categoryFilter = category != null && !category.isBlank() ? normalize(category) : null;
+        List<Scored> scored = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Long id : candidates(terms)) {
+                Entry e = entries.get(id);
+                if (categoryFilter != null && !e.category.equals(categoryFilter)) continue;
+                int score = e.score(terms, phrase);
+                if (score > 0) scored.add(new Scored(e.hit, score));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        scored.sort(Comparator.comparingInt(Scored::score).reversed()
+            .thenComparingInt(s -> s.hit().name().length())
+            .thenComparing(s -> s.hit().name(), String.CASE_INSENSITIVE_ORDER));
+        List<Hit> hits = new ArrayList<>(Math.min(limit, scored.size()));
+        for (int i = 0; i < scored.size() && i < limit; i++) {
+            hits.add(scored.get(i).hit());
+        }
+        return hits;
+    }
+
+    /** Ids having every term somewhere (trigram candidates may still be false positives; scoring re-checks). */
+    private Set<Long> candidates(List<String> terms) {
+        Set<Long> result = null;
+        for (String term : terms) {
+            Set<Long> ids = term.length() < 3 ? prefixes.getOrDefault(term, Set.of()) : trigramCandidates(term);
+            if (result == null) {
+                result = new HashSet<>(ids);
+            } else {
+                result.retainAll(ids);
+            }
+            if (result.isEmpty()) break;
+        }
+        return result;
+    }
+
+    private Set<Long> trigramCandidates(String term) {
+        Set<Long> smallest = null;
+        List<Set<Long>> postings = new ArrayList<>(term.length() - 2);
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            Set<Long> ids = trigrams.get(term.substring(i, i + 3));
+            if (ids == null) return Set.of();
+            postings.add(ids);
+            if (smallest == null || ids.size() < smallest.size()) smallest = ids;
+        }
+        Set<Long> result = new HashSet<>(smallest);
+        for (Set<Long> ids : postings) {
+            if (ids != smallest) result.retainAll(ids);
+        }
+        return result;
+    }
+
+    private void add(Product p) {
+        Entry e = new Entry(new Hit(p.getId(), p.getName(), p.getBarcode(), p.getCategory(), p.getSellingPrice(),
+            p.getGstPercent(), p.getUnit() != null ? p.getUnitLabel() : "pcs"),
+            normalize(p.getName()), normalize(p.getBarcode()), normalize(p.getCategory()));
+        entries.put(p.getId(), e);
+        for (String field : List.of(e.name, e.barcode, e.category)) {
+            for (int i = 0; i + 3 <= field.length(); i++) {
+                String gram = field.substring(i, i + 3);
+                if (e.keys.add("3:" + gram)) trigrams.computeIfAbsent(gram, k -> new HashSet<>()).add(p.getId());
+            }
+            for (String word : words(field)) {
+                for (int len = 1; len <= Math.min(2, word.length()); len++) {
+                    String prefix = word.substring(0, len);
+                    if (e.keys.add("p:" + prefix)) prefixes.computeIfAbsent(prefix, k -> new HashSet<>()).add(p.getId());
+                }
+            }
+        }
+    }
+
+    private void removeEntry(long productId) {
+        Entry e = entries.remove(productId);
+        if (e == null) return;
+        for (String key : e.keys) {
+            Map<String, Set<Long>> postings = key.startsWith("3:") ? trigrams : prefixes;
+            String k = key.substring(2);
+            Set<Long> ids = postings.get(k);
+            if (ids != null && ids.remove(productId) && ids.isEmpty()) postings.remove(k);
+        }
+    }
+
+    /** Lower-case, with runs of anything but letters and digits collapsed to one space. */
+    static String normalize(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && sb.length() > 0) sb.append(' ');
+                sb.append(Character.toLowerCase(c));
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static List<String> words(String normalized) {
+        return normalized.isEmpty() ? List.of() : List.of(normalized.split(" "));
+    }
+
+    private record Scored(Hit hit, int score) {}
+
+    private static final class Entry {
+        final Hit hit;
+        final String name;
+        final String barcode;
+        final String category;
+        final List<String> nameWords;
+        /** Posting keys this entry was added under ("3:" trigram or "p:" prefix), for removal. */
+        final Set<String> keys = new HashSet<>();
+
+        Entry(Hit hit, String name, String barcode, String category) {
+            this.hit = hit;
+            this.name = name;
+            this.barcode = barcode;
+            this.category = category;
+            this.nameWords = words(name);
+        }
+
+        /** 0 if some term matches no field. */
+        int score(List<String> terms, String phrase) {
+            int score = 0;
+            if (!barcode.isEmpty() && barcode.equals(phrase)) score += 1000;
+            else if (!barcode.isEmpty() && barcode.startsWith(phrase)) score += 400;
+            if (name.equals(phrase)) score += 800;
+            else if (name.startsWith(phrase)) score += 500;
+            for (String term : terms) {
+                int termScore = 0;
+                for (String word : nameWords) {
+                    if (word.startsWith(term)) {
+                        termScore = 100;
+                        break;
+                    }
+                }
+                if (termScore == 0 && name.contains(term)) termScore = 40;
+                if (termScore == 0 && barcode.contains(term)) termScore = 20;
+                if (termScore == 0 && startsAnyWord(category, term)) termScore = 15;
+                if (termScore == 0 && category.contains(term)) termScore = 10;
+                if (termScore == 0) return 0;
+                score += termScore;
+            }
+            return score;
+        }
+
+        private static boolean startsAnyWord(String field, String term) {
+            for (String word : words(field)) {
+                if (word.startsWith(term)) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -2,21 +2,31 @@ package com.retailnexus.service;
 
 import com.retailnexus.entity.Product;
 import com.retailnexus.repository.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductSearchIndex searchIndex;
+    private final StockRegistry stockRegistry;
+    private final ApplicationEventPublisher events;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ProductSearchIndex searchIndex,
+                          StockRegistry stockRegistry, ApplicationEventPublisher events) {
         this.productRepository = productRepository;
+        this.searchIndex = searchIndex;
+        this.stockRegistry = stockRegistry;
+        this.events = events;
     }
 
     @Transactional(readOnly = true)
@@ -36,27 +46,40 @@ public class ProductService {
 
     @Transactional
     public Product save(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        events.publishEvent(new ProductChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Transactional
     public void deleteById(Long id) {
         productRepository.deleteById(id);
+        stockRegistry.removeAfterCommit(id);
+        events.publishEvent(new ProductChangedEvent(id));
     }
 
+    /**
+     * Products matching every term of {@code query} in name, barcode or category, best match first (see
+     * {@link ProductSearchIndex}), restricted to {@code category} when given; without a query, the category's
+     * products (or all products) by name.
+     */
     @Transactional(readOnly = true)
     public List<Product> search(String query, String category) {
-        List<Product> list;
-        if (query != null && !query.isBlank() && category != null && !category.isBlank()) {
-            list = productRepository.findByCategoryContainingIgnoreCaseOrNameContainingIgnoreCase(category, query);
-        } else if (query != null && !query.isBlank()) {
-            list = productRepository.findByNameContainingIgnoreCaseOrderByNameAsc(query);
-        } else if (category != null && !category.isBlank()) {
-            list = productRepository.findByCategoryOrderByNameAsc(category);
-        } else {
-            list = productRepository.findAllByOrderByNameAsc();
+        if (query == null || query.isBlank()) {
+            return category != null && !category.isBlank()
+                ? productRepository.findByCategoryOrderByNameAsc(category)
+                : productRepository.findAllByOrderByNameAsc();
         }
-        return list.stream().sorted(Comparator.comparing(Product::getName, String.CASE_INSENSITIVE_ORDER)).collect(Collectors.toList());
+        List<Long> ids = searchIndex.search(query, category, Integer.MAX_VALUE).stream()
+            .map(ProductSearchIndex.Hit::id).toList();
+        Map<Long, Product> byId = productRepository.findAllByIdCached(ids).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    /** Type-ahead suggestions straight from the in-memory index (no database access). */
+    public List<ProductSearchIndex.Hit> suggest(String query, String category, int limit) {
+        return searchIndex.search(query, category, limit);
     }
 
     @Transactional(readOnly = true)
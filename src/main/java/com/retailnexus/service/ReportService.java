@@ -1,13 +1,13 @@
 package com.retailnexus.service;
 
 import com.retailnexus.entity.Product;
-import com.retailnexus.entity.Sale;
-import com.retailnexus.repository.BatchRepository;
-import com.retailnexus.repository.SaleItemRepository;
 import com.retailnexus.repository.SaleRepository;
+import com.retailnexus.repository.SaleSummaryRow;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -17,39 +17,74 @@ import java.util.stream.Collectors;
 public class ReportService {
 
     private final SaleRepository saleRepository;
-    private final SaleItemRepository saleItemRepository;
-    private final BatchRepository batchRepository;
+    private final SalesRollupService salesRollupService;
+    private final StockSnapshotService stockSnapshotService;
     private final ProductService productService;
 
-    public ReportService(SaleRepository saleRepository, SaleItemRepository saleItemRepository,
-                         BatchRepository batchRepository, ProductService productService) {
+    public ReportService(SaleRepository saleRepository, SalesRollupService salesRollupService,
+                         StockSnapshotService stockSnapshotService, ProductService productService) {
         this.saleRepository = saleRepository;
-        this.saleItemRepository = saleItemRepository;
-        this.batchRepository = batchRepository;
+        this.salesRollupService = salesRollupService;
+        this.stockSnapshotService = stockSnapshotService;
         this.productService = productService;
     }
 
     @Transactional(readOnly = true)
-    public List<Sale> dailySalesReport(LocalDate date) {
-        LocalDateTime start = date.atStartOfDay();
-        LocalDateTime end = date.plusDays(1).atStartOfDay();
-        return saleRepository.findBySaleDateBetweenOrderBySaleDateDesc(start, end);
+    public BigDecimal dailyTotal(LocalDate date) {
+        return salesRollupService.revenueBetween(date, date);
     }
 
+    /**
+     * One page of the sales listing for [{@code from}, {@code to}), newest first. With no cursor this is the
+     * newest page; otherwise it is the page just older than {@code cursor} or, with {@code newer}, just newer.
+     */
     @Transactional(readOnly = true)
-    public List<Sale> monthlyReport(int year, int month) {
-        LocalDate start = LocalDate.of(year, month, 1);
-        LocalDate end = start.plusMonths(1);
-        return saleRepository.findBySaleDateBetweenOrderBySaleDateDesc(start.atStartOfDay(), end.atStartOfDay());
+    public SalesListing salesListing(LocalDate from, LocalDate to, SaleCursor cursor, boolean newer) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        PageRequest limit = PageRequest.of(0, LISTING_PAGE_SIZE + 1);
+        List<SaleSummaryRow> rows;
+        boolean hasOlder;
+        boolean hasNewer;
+        if (cursor != null && newer) {
+            rows = new ArrayList<>(saleRepository.findSummariesAfter(start, end, cursor.saleDate(), cursor.id(), limit));
+            hasNewer = rows.size() > LISTING_PAGE_SIZE;
+            if (hasNewer) rows.remove(rows.size() - 1);
+            Collections.reverse(rows);
+            hasOlder = true;
+        } else {
+            rows = new ArrayList<>(cursor != null
+                ? saleRepository.findSummariesBefore(start, end, cursor.saleDate(), cursor.id(), limit)
+                : saleRepository.findSummariesBefore(start, end, end, Long.MAX_VALUE, limit));
+            hasOlder = rows.size() > LISTING_PAGE_SIZE;
+            if (hasOlder) rows.remove(rows.size() - 1);
+            hasNewer = cursor != null;
+        }
+        SaleCursor newerCursor = hasNewer && !rows.isEmpty() ? SaleCursor.of(rows.get(0)) : null;
+        SaleCursor olderCursor = hasOlder && !rows.isEmpty() ? SaleCursor.of(rows.get(rows.size() - 1)) : null;
+        return new SalesListing(rows, newerCursor, olderCursor);
+    }
+
+    /** Next {@code size} sales of [{@code from}, {@code to}) after {@code after} (null for the first page), oldest first. */
+    @Transactional(readOnly = true)
+    public List<SaleSummaryRow> salesPage(LocalDateTime from, LocalDateTime to, SaleSummaryRow after, int size) {
+        LocalDateTime afterDate = after != null ? after.saleDate() : from;
+        long afterId = after != null ? after.id() : 0L;
+        return saleRepository.findSummariesAfter(from, to, afterDate, afterId, PageRequest.of(0, size));
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal totalBetween(LocalDate from, LocalDate to) {
+        return salesRollupService.revenueBetween(from, to);
     }
 
     @Transactional(readOnly = true)
     public List<ProductStockDto> lowStockReport(int threshold) {
         List<Product> products = productService.findAll();
+        StockSnapshot snapshot = stockSnapshotService.availableStock();
         List<ProductStockDto> result = new ArrayList<>();
         for (Product p : products) {
-            Integer sum = batchRepository.sumQuantityByProduct(p);
-            int stock = (sum != null ? sum : 0);
+            int stock = snapshot.get(p.getId());
             if (stock <= threshold && stock >= 0)
                 result.add(new ProductStockDto(p, stock));
         }
@@ -59,19 +94,50 @@ public class ReportService {
 
     @Transactional(readOnly = true)
     public List<ProductStockDto> deadStockReport() {
-        LocalDateTime since = LocalDateTime.now().minusDays(30);
-        List<Object[]> sold = saleItemRepository.findSalesByProductSince(since);
+        LocalDate since = LocalDate.now().minusDays(30);
+        List<Object[]> sold = salesRollupService.salesByProductSince(since);
         Set<Long> soldIds = sold.stream().map(row -> ((Product) row[0]).getId()).collect(Collectors.toSet());
+        StockSnapshot snapshot = stockSnapshotService.availableStock();
         List<ProductStockDto> result = new ArrayList<>();
         for (Product p : productService.findAll()) {
             if (soldIds.contains(p.getId())) continue;
-            Integer sum = batchRepository.sumQuantityByProduct(p);
-            if (sum != null && sum > 0)
-                result.add(new ProductStockDto(p, sum));
+            int stock = snapshot.get(p.getId());
+            if (stock > 0)
+                result.add(new ProductStockDto(p, stock));
         }
         return result;
     }
 
+    /** Sales listing page size; pages are fetched by keyset on (saleDate, id), so deep pages cost the same as the first. */
+    public static final int LISTING_PAGE_SIZE = 50;
+
+    /** A page of sale rows (newest first) with the cursors of the adjacent pages, null where there is none. */
+    public record SalesListing(List<SaleSummaryRow> rows, SaleCursor newer, SaleCursor older) {}
+
+    /** Position of a sale in (saleDate, id) order; rendered as {@code saleDate_id} in page links. */
+    public record SaleCursor(LocalDateTime saleDate, Long id) {
+
+        static SaleCursor of(SaleSummaryRow row) {
+            return new SaleCursor(row.saleDate(), row.id());
+        }
+
+        /** Parse a cursor from a page link; null for a missing or malformed value (the listing restarts). */
+        public static SaleCursor parse(String value) {
+            if (value == null || value.isBlank()) return null;
+            int sep = value.lastIndexOf('_');
+            try {
+                return new SaleCursor(LocalDateTime.parse(value.substring(0, sep)), Long.parseLong(value.substring(sep + 1)));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return saleDate + "_" + id;
+        }
+    }
+
     public static class ProductStockDto {
         private final Product product;
         private final int stock;
@@ -1,8 +1,6 @@
 package com.retailnexus.service;
 
 import com.retailnexus.entity.Product;
-import com.retailnexus.repository.BatchRepository;
-import com.retailnexus.repository.SaleItemRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,31 +13,31 @@ import java.util.stream.Collectors;
 @Service
 public class RestockSuggestionService {
 
-    private final SaleItemRepository saleItemRepository;
+    private final SalesRollupService salesRollupService;
     private final ProductService productService;
-    private final BatchRepository batchRepository;
+    private final StockSnapshotService stockSnapshotService;
 
     private static final int DAYS_LOOKBACK = 30;
 
-    public RestockSuggestionService(SaleItemRepository saleItemRepository, ProductService productService,
-                                    BatchRepository batchRepository) {
-        this.saleItemRepository = saleItemRepository;
+    public RestockSuggestionService(SalesRollupService salesRollupService, ProductService productService,
+                                    StockSnapshotService stockSnapshotService) {
+        this.salesRollupService = salesRollupService;
         this.productService = productService;
-        this.batchRepository = batchRepository;
+        this.stockSnapshotService = stockSnapshotService;
     }
 
     @Transactional(readOnly = true)
     public List<RestockSuggestion> getSuggestions() {
-        var since = java.time.LocalDateTime.now().minusDays(DAYS_LOOKBACK);
-        List<Object[]> salesByProduct = saleItemRepository.findSalesByProductSince(since);
+        var since = java.time.LocalDate.now().minusDays(DAYS_LOOKBACK);
+        List<Object[]> salesByProduct = salesRollupService.salesByProductSince(since);
         Map<Product, Long> soldQty = salesByProduct.stream()
             .collect(Collectors.toMap(row -> (Product) row[0], row -> toLongQuantity(row[1])));
 
+        StockSnapshot snapshot = stockSnapshotService.availableStock();
         List<RestockSuggestion> result = new ArrayList<>();
         for (Product p : productService.findAll()) {
             long avgSold = soldQty.getOrDefault(p, 0L) / DAYS_LOOKBACK;
-            Integer current = batchRepository.sumQuantityByProduct(p);
-            int stock = (current != null ? current : 0);
+            int stock = snapshot.get(p.getId());
             if (avgSold > 0 && stock < avgSold * 7) { // suggest if stock less than ~1 week of sales
                 result.add(new RestockSuggestion(p, stock, (int) avgSold, (int) (avgSold * 14)));
             }
@@ -0,0 +1,5 @@
+package com.retailnexus.service;
+
+/** Published by {@link SaleService#createSale}; listeners should react after commit. */
+public record SaleCompletedEvent(Long saleId) {
+}
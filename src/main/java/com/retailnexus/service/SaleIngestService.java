@@ -0,0 +1,235 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.IngestedSale;
+import com.retailnexus.entity.Product;
+import com.retailnexus.entity.Sale;
+import com.retailnexus.repository.IngestedSaleRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Applies sales queued by a till while it was offline. Each sale carries a client-generated idempotency key that
+ * is stored (unique) in the same transaction as the sale, so a replayed push returns the original sale instead
+ * of deducting stock again. Only the cashier who pushed a key gets its sale back: the same key from anyone else
+ * is rejected.
+ * <p>
+ * Keys already ingested are found with one query, every product of the push is loaded with one query and carts
+ * are validated before any stock is touched. Valid sales are then written {@code retailnexus.ingest.chunk-size}
+ * per transaction. A chunk's INSERTs are flushed together at its end, so they are JDBC-batched across its sales
+ * rather than per sale. If a chunk fails (stock lock timeout, or a key another push stored
+ * first) it is rolled back and its sales are retried one per transaction, so one bad sale costs only itself.
+ * A chunk holds the lock stripes of all its products until it commits, and live tills selling those products
+ * wait for it: keep chunks small (default 10).
+ */
+@Service
+public class SaleIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(SaleIngestService.class);
+    static final int MAX_KEY_LENGTH = 100;
+    /** Sales dated further ahead than this (till clock skew) are rejected. */
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofMinutes(5);
+    private static final int KEY_LOOKUP_CHUNK = 500;
+
+    private final SaleService saleService;
+    private final IngestedSaleRepository ingestedSaleRepository;
+    private final ProductLockStripes productLocks;
+    private final EntityManager entityManager;
+    private final TransactionTemplate tx;
+    private final int chunkSize;
+
+    public SaleIngestService(SaleService saleService, IngestedSaleRepository ingestedSaleRepository,
+                             ProductLockStripes productLocks, EntityManager entityManager,
+                             PlatformTransactionManager transactionManager, @Value("${retailnexus.ingest.chunk-size:10}") int chunkSize) {
+        this.saleService = saleService;
+        this.ingestedSaleRepository = ingestedSaleRepository;
+        this.productLocks = productLocks;
+        this.entityManager = entityManager;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /** A sale rung up offline: key unique per sale (e.g. a UUID), original time, and the cart. */
+    public record OfflineSale(String idempotencyKey, LocalDateTime saleDate, Sale.PaymentMethod paymentMethod,
+                              List<SaleService.CheckoutLine> items) {}
+
+    public enum Status { CREATED, DUPLICATE, REJECTED }
+
+    /** Outcome for one pushed sale; {@code saleId} is set for CREATED and DUPLICATE. */
+    public record Result(String idempotencyKey, Status status, Long saleId, BigDecimal totalAmount, List<String> errors) {
+
+        static Result created(String key, Sale sale) {
+            return new Result(key, Status.CREATED, sale.getId(), sale.getTotalAmount(), List.of());
+        }
+
+        static Result duplicate(String key, Long saleId) {
+            return new Result(key, Status.DUPLICATE, saleId, null, List.of());
+        }
+
+        static Result rejected(String key, List<String> errors) {
+            return new Result(key, Status.REJECTED, null, null, errors);
+        }
+    }
+
+    private record Prepared(int index, OfflineSale sale, List<SaleService.CartItem> cart) {}
+
+    /** Sale already stored under a key, and the cashier it was sold by (null if none). */
+    private record Ingested(Long saleId, Long cashierId) {
+
+        /** DUPLICATE for the cashier who pushed the key; anyone else reusing it is rejected, not shown the sale. */
+        Result resultFor(String key, Long soldById) {
+            return Objects.equals(cashierId, soldById) ? Result.duplicate(key, saleId)
+                : Result.rejected(key, List.of("idempotencyKey was already used by another cashier."));
+        }
+    }
+
+    /** Apply {@code sales} as sold by the user with id {@code soldById}; results are in request order. */
+    public List<Result> ingest(List<OfflineSale> sales, Long soldById) {
+        long start = System.nanoTime();
+        Result[] results = new Result[sales.size()];
+        Map<String, Integer> firstByKey = new HashMap<>();
+        List<Integer> candidates = new ArrayList<>();
+        LocalDateTime latest = LocalDateTime.now().plus(MAX_CLOCK_SKEW);
+        for (int i = 0; i < sales.size(); i++) {
+            OfflineSale sale = sales.get(i);
+            String key = sale != null ? sale.idempotencyKey() : null;
+            if (key == null || key.isBlank()) {
+                results[i] = Result.rejected(key, List.of("idempotencyKey is required."));
+            } else if (key.length() > MAX_KEY_LENGTH) {
+                results[i] = Result.rejected(key, List.of("idempotencyKey is longer than " + MAX_KEY_LENGTH + " characters."));
+            } else if (sale.saleDate() == null || sale.saleDate().isAfter(latest)) {
+                results[i] = Result.rejected(key, List.of("saleDate is required and must not be in the future."));
+            } else if (firstByKey.putIfAbsent(key, i) == null) {
+                candidates.add(i);
+            }
+            // a repeated key within the push is resolved from its first occurrence at the end
+        }
+
+        Map<String, Ingested> existing = ingestedSales(firstByKey.keySet());
+        Set<Long> productIds = new HashSet<>();
+        for (int i : candidates) {
+            productIds.addAll(SaleService.productIds(sales.get(i).items()));
+        }
+        Map<Long, Product> products = saleService.loadProducts(productIds);
+        List<Prepared> valid = new ArrayList<>();
+        for (int i : candidates) {
+            OfflineSale sale = sales.get(i);
+            Ingested stored = existing.get(sale.idempotencyKey());
+            if (stored != null) {
+                results[i] = stored.resultFor(sale.idempotencyKey(), soldById);
+                continue;
+            }
+            try {
+                valid.add(new Prepared(i, sale, saleService.toCart(sale.items(), products)));
+            } catch (CartValidationException e) {
+                results[i] = Result.rejected(sale.idempotencyKey(), e.getErrors());
+            }
+        }
+
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            List<Prepared> chunk = valid.subList(from, Math.min(valid.size(), from + chunkSize));
+            try {
+                List<Result> chunkResults = tx.execute(status -> applyChunk(chunk, soldById));
+                for (int j = 0; j < chunk.size(); j++) {
+                    results[chunk.get(j).index()] = chunkResults.get(j);
+                }
+            } catch (RuntimeException e) {
+                log.info("Ingest chunk of {} sales rolled back ({}); retrying them one by one", chunk.size(), e.toString());
+                for (Prepared p : chunk) {
+                    results[p.index()] = applyAlone(p, soldById);
+                }
+            }
+        }
+
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) continue;
+            String key = sales.get(i).idempotencyKey();
+            Result first = results[firstByKey.get(key)];
+            results[i] = first.saleId() != null ? Result.duplicate(key, first.saleId()) : first;
+        }
+        log.info("Ingested {} offline sales ({} new) in {} ms", sales.size(), valid.size(),
+            (System.nanoTime() - start) / 1_000_000);
+        return List.of(results);
+    }
+
+    private List<Result> applyChunk(List<Prepared> chunk, Long soldById) {
+        // Take every stripe of the chunk up front, in order; per-sale locking below then only re-enters them.
+        Set<Long> productIds = new HashSet<>();
+        for (Prepared p : chunk) {
+            p.cart().forEach(item -> productIds.add(item.getProduct().getId()));
+        }
+        productLocks.lockUntilCompletion(productIds);
+        List<Result> results = new ArrayList<>(chunk.size());
+        for (Prepared p : chunk) {
+            results.add(create(p, soldById));
+        }
+        detachWritten();
+        return results;
+    }
+
+    private Result applyAlone(Prepared p, Long soldById) {
+        String key = p.sale().idempotencyKey();
+        try {
+            return tx.execute(status -> {
+                Ingested stored = ingestedSales(Set.of(key)).get(key);
+                if (stored != null) return stored.resultFor(key, soldById);
+                Result result = create(p, soldById);
+                detachWritten();
+                return result;
+            });
+        } catch (RuntimeException e) {
+            Ingested stored = ingestedSales(Set.of(key)).get(key);
+            if (stored != null) return stored.resultFor(key, soldById);
+            log.warn("Offline sale {} could not be applied", key, e);
+            return Result.rejected(key, List.of(e.getMessage() != null ? e.getMessage() : e.toString()));
+        }
+    }
+
+    private Result create(Prepared p, Long soldById) {
+        OfflineSale offline = p.sale();
+        Sale sale = saleService.createSaleUnflushed(p.cart(), saleService.cashierReference(soldById), offline.paymentMethod(),
+            offline.saleDate());
+        IngestedSale record = new IngestedSale();
+        record.setIdempotencyKey(offline.idempotencyKey());
+        record.setSale(sale);
+        ingestedSaleRepository.save(record);
+        return Result.created(offline.idempotencyKey(), sale);
+    }
+
+    /**
+     * Write out the transaction's sales in JDBC batches and start the next chunk from an empty persistence
+     * context. The request-bound (open-in-view) context would otherwise grow with every sale of the push, making
+     * each auto-flush slower. Allocation does not read managed batches: {@link BatchAllocator} sees the chunk's
+     * earlier deductions.
+     */
+    private void detachWritten() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Map<String, Ingested> ingestedSales(Set<String> keys) {
+        Map<String, Ingested> stored = new HashMap<>();
+        List<String> all = new ArrayList<>(keys);
+        for (int from = 0; from < all.size(); from += KEY_LOOKUP_CHUNK) {
+            for (Object[] row : ingestedSaleRepository.findSaleIdsByKeys(all.subList(from, Math.min(all.size(), from + KEY_LOOKUP_CHUNK)))) {
+                stored.put((String) row[0], new Ingested((Long) row[1], (Long) row[2]));
+            }
+        }
+        return stored;
+    }
+}
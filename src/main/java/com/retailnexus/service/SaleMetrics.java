@@ -0,0 +1,104 @@
+package com.retailnexus.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of {@link SaleService#createSale}: {@code retailnexus.sale.create} (whole call, tagged outcome),
+ * {@code retailnexus.sale.phase} (tagged phase: allocation = waiting for product locks and choosing batches,
+ * persistence = sale, items and sales rollup written, deduction = batch quantities and ledger rows),
+ * {@code retailnexus.sale.lines} (cart lines per recorded sale) and {@code retailnexus.sale.oversold} (lines sold
+ * beyond the stock on hand, from the product's earliest-expiring batch). Percentile histograms for
+ * the timers are enabled in application.properties.
+ */
+@Component
+public class SaleMetrics {
+
+    private final Timer succeeded;
+    private final Timer failed;
+    private final Timer allocation;
+    private final Timer persistence;
+    private final Timer deduction;
+    private final DistributionSummary lines;
+    private final Counter oversold;
+
+    public SaleMetrics(MeterRegistry registry) {
+        this.succeeded = create(registry, "success");
+        this.failed = create(registry, "error");
+        this.allocation = phase(registry, "allocation");
+        this.persistence = phase(registry, "persistence");
+        this.deduction = phase(registry, "deduction");
+        this.lines = DistributionSummary.builder("retailnexus.sale.lines")
+            .description("Cart lines per recorded sale")
+            .baseUnit("lines")
+            .register(registry);
+        this.oversold = Counter.builder("retailnexus.sale.oversold")
+            .description("Cart lines sold beyond the stock on hand")
+            .baseUnit("lines")
+            .register(registry);
+    }
+
+    private static Timer create(MeterRegistry registry, String outcome) {
+        return Timer.builder("retailnexus.sale.create")
+            .description("Recording a sale, from product locks to stock deducted (commit not included)")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    private static Timer phase(MeterRegistry registry, String phase) {
+        return Timer.builder("retailnexus.sale.phase")
+            .description("Time spent in each phase of recording a sale")
+            .tag("phase", phase)
+            .register(registry);
+    }
+
+    Sample start(int cartLines) {
+        return new Sample(cartLines);
+    }
+
+    void oversold() {
+        oversold.increment();
+    }
+
+    /** Timing of one sale; each phase ends when the next one is marked. Not thread-safe (one per call). */
+    final class Sample {
+        private final int cartLines;
+        private final long start = System.nanoTime();
+        private long mark = start;
+        private boolean deducted;
+
+        private Sample(int cartLines) {
+            this.cartLines = cartLines;
+        }
+
+        void allocated() {
+            mark(allocation);
+        }
+
+        void persisted() {
+            mark(persistence);
+        }
+
+        void deducted() {
+            mark(deduction);
+            deducted = true;
+        }
+
+        /** Record the whole call; a sale that never reached {@link #deducted()} counts as an error. */
+        void stop() {
+            (deducted ? succeeded : failed).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (deducted) lines.record(cartLines);
+        }
+
+        private void mark(Timer phase) {
+            long now = System.nanoTime();
+            phase.record(now - mark, TimeUnit.NANOSECONDS);
+            mark = now;
+        }
+    }
+}
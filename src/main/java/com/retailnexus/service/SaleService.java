@@ -1,7 +1,10 @@
 package com.retailnexus.service;
 
 import com.retailnexus.entity.*;
+import com.retailnexus.repository.ProductRepository;
 import com.retailnexus.repository.SaleRepository;
+import com.retailnexus.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -10,115 +13,308 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class SaleService {
 
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
     private final SaleRepository saleRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
     private final BatchService batchService;
+    private final BatchAllocator batchAllocator;
+    private final ProductLockStripes productLocks;
+    private final SalesRollupService salesRollupService;
+    private final SaleMetrics saleMetrics;
+    private final ApplicationEventPublisher events;
 
-    public SaleService(SaleRepository saleRepository, BatchService batchService) {
+    public SaleService(SaleRepository saleRepository, ProductRepository productRepository, UserRepository userRepository,
+                       BatchService batchService, BatchAllocator batchAllocator, ProductLockStripes productLocks,
+                       SalesRollupService salesRollupService, SaleMetrics saleMetrics, ApplicationEventPublisher events) {
         this.saleRepository = saleRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
         this.batchService = batchService;
+        this.batchAllocator = batchAllocator;
+        this.productLocks = productLocks;
+        this.salesRollupService = salesRollupService;
+        this.saleMetrics = saleMetrics;
+        this.events = events;
+    }
+
+    /**
+     * Validate and resolve {@code lines} (see {@link #prepareCart}), then record the sale in the same transaction,
+     * sold by the user with id {@code soldById} (see {@link AuthenticatedUser#getUserId}).
+     */
+    @Transactional
+    public Sale checkout(List<CheckoutLine> lines, Long soldById, Sale.PaymentMethod paymentMethod) {
+        return createSale(prepareCart(lines), cashierReference(soldById), paymentMethod);
+    }
+
+    /**
+     * {@link #checkout}, returning the sale's invoice built in the same transaction. {@code cashier} is the
+     * username of {@code soldById}, e.g. the authenticated principal's, so the user row is not read.
+     */
+    @Transactional
+    public Invoice checkoutInvoice(List<CheckoutLine> lines, Long soldById, String cashier,
+                                   Sale.PaymentMethod paymentMethod) {
+        return Invoice.of(checkout(lines, soldById, paymentMethod), cashier);
+    }
+
+    /**
+     * Reference to the user with id {@code userId} for {@link Sale#setSoldBy}, without a SELECT; null for null.
+     * Use it within the transaction that saves the sale.
+     */
+    public User cashierReference(Long userId) {
+        return userId != null ? userRepository.getReferenceById(userId) : null;
+    }
+
+    /**
+     * Load every product of the cart with one query, then check it with {@link #toCart}. Throws
+     * {@link CartValidationException} listing every bad line in order; a partly valid cart is rejected.
+     */
+    @Transactional(readOnly = true)
+    public List<CartItem> prepareCart(List<CheckoutLine> lines) {
+        return toCart(lines, loadProducts(productIds(lines)));
+    }
+
+    /** Products by id, from the second-level cache or else one query; ids that do not exist are absent. */
+    @Transactional(readOnly = true)
+    public Map<Long, Product> loadProducts(Collection<Long> ids) {
+        Map<Long, Product> products = new HashMap<>();
+        if (!ids.isEmpty()) {
+            productRepository.findAllByIdCached(ids).forEach(p -> products.put(p.getId(), p));
+        }
+        return products;
+    }
+
+    public static Set<Long> productIds(List<CheckoutLine> lines) {
+        Set<Long> ids = new HashSet<>();
+        if (lines == null) return ids;
+        for (CheckoutLine line : lines) {
+            if (line != null && line.productId() != null) ids.add(line.productId());
+        }
+        return ids;
+    }
+
+    /**
+     * Check each line's product (looked up in {@code products}), quantity and overrides and build the cart.
+     * Not transactional, so a rejected cart does not mark a surrounding transaction rollback-only.
+     */
+    public List<CartItem> toCart(List<CheckoutLine> lines, Map<Long, Product> products) {
+        if (lines == null || lines.isEmpty()) {
+            throw new CartValidationException(List.of("Cart is empty."));
+        }
+        List<String> errors = new ArrayList<>();
+        List<CartItem> cart = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            CheckoutLine line = lines.get(i);
+            String at = "Line " + (i + 1) + ": ";
+            if (line == null || line.productId() == null) {
+                errors.add(at + "productId is required.");
+                continue;
+            }
+            Product product = products.get(line.productId());
+            if (product == null) {
+                errors.add(at + "product " + line.productId() + " not found.");
+            }
+            BigDecimal qty = line.quantity();
+            if (qty == null || qty.signum() <= 0) {
+                errors.add(at + "quantity must be greater than zero.");
+            } else if (qty.stripTrailingZeros().scale() > 3) {
+                errors.add(at + "quantity allows at most 3 decimal places.");
+            } else if (product != null && product.getUnit() == Product.Unit.PIECES && qty.stripTrailingZeros().scale() > 0) {
+                errors.add(at + product.getName() + " is sold in whole pieces.");
+            }
+            if (line.unitPrice() != null && (line.unitPrice().signum() < 0 || line.unitPrice().stripTrailingZeros().scale() > 2)) {
+                errors.add(at + "unitPrice must be zero or more with at most 2 decimal places.");
+            }
+            if (line.gstPercent() != null && (line.gstPercent().signum() < 0 || line.gstPercent().compareTo(HUNDRED) > 0
+                    || line.gstPercent().stripTrailingZeros().scale() > 2)) {
+                errors.add(at + "gstPercent must be between 0 and 100 with at most 2 decimal places.");
+            }
+            if (product == null) continue;
+            CartItem item = new CartItem();
+            item.setProduct(product);
+            item.setQuantity(qty);
+            item.setUnitPrice(line.unitPrice());
+            item.setGstPercent(line.gstPercent());
+            cart.add(item);
+        }
+        if (!errors.isEmpty()) {
+            throw new CartValidationException(errors);
+        }
+        return cart;
     }
 
     @Transactional
     public Sale createSale(List<CartItem> cartItems, User soldBy, com.retailnexus.entity.Sale.PaymentMethod paymentMethod) {
+        return createSale(cartItems, soldBy, paymentMethod, null);
+    }
+
+    /** As {@link #createSale(List, User, Sale.PaymentMethod)}, dated {@code saleDate} (null = now), e.g. for sales rung up offline. */
+    @Transactional
+    public Sale createSale(List<CartItem> cartItems, User soldBy, Sale.PaymentMethod paymentMethod, LocalDateTime saleDate) {
+        return createSale(cartItems, soldBy, paymentMethod, saleDate, true);
+    }
+
+    /**
+     * As {@link #createSale(List, User, Sale.PaymentMethod, LocalDateTime)}, for a caller that records many sales in
+     * one transaction. The sale's INSERTs are left to the caller's next flush, so they are JDBC-batched with those of
+     * the other sales, and its phase timings do not include them.
+     */
+    @Transactional
+    public Sale createSaleUnflushed(List<CartItem> cartItems, User soldBy, Sale.PaymentMethod paymentMethod,
+                                    LocalDateTime saleDate) {
+        return createSale(cartItems, soldBy, paymentMethod, saleDate, false);
+    }
+
+    private Sale createSale(List<CartItem> cartItems, User soldBy, Sale.PaymentMethod paymentMethod, LocalDateTime saleDate,
+                            boolean flushPhases) {
+        SaleMetrics.Sample timing = saleMetrics.start(cartItems.size());
+        try {
+            return writeSale(cartItems, soldBy, paymentMethod, saleDate, flushPhases, timing);
+        } finally {
+            timing.stop();
+        }
+    }
+
+    private Sale writeSale(List<CartItem> cartItems, User soldBy, Sale.PaymentMethod paymentMethod, LocalDateTime saleDate,
+                           boolean flushPhases, SaleMetrics.Sample timing) {
         Sale sale = new Sale();
+        if (saleDate != null) sale.setSaleDate(saleDate);
         sale.setSoldBy(soldBy);
         sale.setPaymentMethod(paymentMethod != null ? paymentMethod : Sale.PaymentMethod.CASH);
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        BigDecimal totalGst = BigDecimal.ZERO;
-        BigDecimal totalProfit = BigDecimal.ZERO;
 
         List<BatchDeduction> deductions = new ArrayList<>();
+        Pricing.Totals totals = new Pricing.Totals();
+
+        // Held until commit: the plan below is made from stock that concurrent sales of the same products would change.
+        productLocks.lockUntilCompletion(cartItems.stream().map(c -> c.getProduct().getId()).toList());
 
-        for (CartItem cart : cartItems) {
-            Product product = cart.getProduct();
-            BigDecimal needed = cart.getQuantity();
-            if (needed == null || needed.compareTo(BigDecimal.ZERO) <= 0) continue;
-            List<Batch> batches = batchService.findAvailableByProductFifo(product);
-            BigDecimal remaining = needed;
-            for (Batch batch : batches) {
-                if (remaining.compareTo(BigDecimal.ZERO) <= 0) break;
-                int batchQty = Math.max(0, batch.getQuantity());
-                if (batchQty <= 0) continue;
-                BigDecimal take = remaining.min(BigDecimal.valueOf(batchQty));
-                if (take.compareTo(BigDecimal.ZERO) <= 0) continue;
-                BigDecimal unitPrice = cart.getUnitPrice() != null ? cart.getUnitPrice() : product.getSellingPrice();
-                BigDecimal gstPct = cart.getGstPercent() != null ? cart.getGstPercent() : product.getGstPercent();
-                if (gstPct == null) gstPct = BigDecimal.ZERO;
-                BigDecimal subtotal = unitPrice.multiply(take);
-                BigDecimal gstAmount = subtotal.multiply(gstPct).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-                BigDecimal totalPrice = subtotal.add(gstAmount);
-                BigDecimal cost = product.getCostPrice().multiply(take);
-                BigDecimal profit = totalPrice.subtract(gstAmount).subtract(cost);
-
-                SaleItem item = new SaleItem();
-                item.setSale(sale);
-                item.setProduct(product);
-                item.setBatch(batch);
-                item.setQuantity(take);
-                item.setUnitPrice(unitPrice);
-                item.setGstPercent(gstPct);
-                item.setGstAmount(gstAmount);
-                item.setTotalPrice(totalPrice);
-                item.setProfit(profit);
-                sale.getItems().add(item);
-
-                totalAmount = totalAmount.add(totalPrice);
-                totalGst = totalGst.add(gstAmount);
-                totalProfit = totalProfit.add(profit);
-
-                int deductQty = take.setScale(0, RoundingMode.UP).intValue();
-                deductions.add(new BatchDeduction(batch, deductQty));
-                remaining = remaining.subtract(take);
+        List<BatchAllocator.LinePlan> plans = batchAllocator.plan(cartItems);
+        for (int i = 0; i < cartItems.size(); i++) {
+            CartItem cart = cartItems.get(i);
+            BatchAllocator.LinePlan plan = plans.get(i);
+            for (BatchAllocator.Take take : plan.takes()) {
+                addItem(sale, cart, take.batch(), take.quantity(), totals, deductions);
             }
-            if (remaining.compareTo(BigDecimal.ZERO) > 0) {
-                Batch batch = batchService.getOrCreateBatchForProduct(product);
-                BigDecimal take = remaining;
-                BigDecimal unitPrice = cart.getUnitPrice() != null ? cart.getUnitPrice() : product.getSellingPrice();
-                BigDecimal gstPct = cart.getGstPercent() != null ? cart.getGstPercent() : product.getGstPercent();
-                if (gstPct == null) gstPct = BigDecimal.ZERO;
-                BigDecimal subtotal = unitPrice.multiply(take);
-                BigDecimal gstAmount = subtotal.multiply(gstPct).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-                BigDecimal totalPrice = subtotal.add(gstAmount);
-                BigDecimal cost = product.getCostPrice().multiply(take);
-                BigDecimal profit = totalPrice.subtract(gstAmount).subtract(cost);
-
-                SaleItem item = new SaleItem();
-                item.setSale(sale);
-                item.setProduct(product);
-                item.setBatch(batch);
-                item.setQuantity(take);
-                item.setUnitPrice(unitPrice);
-                item.setGstPercent(gstPct);
-                item.setGstAmount(gstAmount);
-                item.setTotalPrice(totalPrice);
-                item.setProfit(profit);
-                sale.getItems().add(item);
-
-                totalAmount = totalAmount.add(totalPrice);
-                totalGst = totalGst.add(gstAmount);
-                totalProfit = totalProfit.add(profit);
-
-                int deductQty = take.setScale(0, RoundingMode.UP).intValue();
-                deductions.add(new BatchDeduction(batch, deductQty));
+            if (plan.shortfall().signum() > 0) {
+                saleMetrics.oversold();
+                Batch overflow = plan.overflow() != null ? plan.overflow()
+                    : batchService.getOrCreateBatchForProduct(cart.getProduct());
+                addItem(sale, cart, overflow, plan.shortfall(), totals, deductions);
             }
         }
 
-        sale.setTotalAmount(totalAmount);
-        sale.setTotalGst(totalGst);
-        sale.setTotalProfit(totalProfit);
+        sale.setTotalAmount(Pricing.money(totals.total()));
+        sale.setTotalGst(Pricing.money(totals.gst()));
+        sale.setTotalProfit(Pricing.money(totals.profit()));
+        timing.allocated();
+
+        // Flushed per phase so each phase's timing includes its own (batched) INSERTs rather than leaving them to commit.
         sale = saleRepository.save(sale);
+        if (flushPhases) saleRepository.flush();
+        timing.persisted();
+
         for (BatchDeduction d : deductions) {
             batchService.deductStock(d.batch, d.qty, "SALE-" + sale.getId());
         }
+        // After the deductions, so the shared day row is updated after the ledger's beforeCommit work.
+        salesRollupService.recordSale(sale);
+        if (flushPhases) saleRepository.flush();
+        timing.deducted();
+        events.publishEvent(new SaleCompletedEvent(sale.getId()));
         return sale;
     }
 
+    /** Add {@code quantity} of the cart line from {@code batch} to the sale and {@code totals}, priced by {@link Pricing}. */
+    private static void addItem(Sale sale, CartItem cart, Batch batch, BigDecimal quantity, Pricing.Totals totals,
+                                List<BatchDeduction> deductions) {
+        Product product = cart.getProduct();
+        BigDecimal unitPrice = unitPrice(cart);
+        BigDecimal gstPct = gstPercent(cart);
+        Pricing.Line price = priceLine(cart, unitPrice, gstPct, quantity);
+        totals.add(price);
+
+        SaleItem item = new SaleItem();
+        item.setSale(sale);
+        item.setProduct(product);
+        item.setBatch(batch);
+        item.setQuantity(quantity);
+        item.setUnitPrice(unitPrice);
+        item.setGstPercent(gstPct);
+        item.setGstAmount(Pricing.money(price.gst()));
+        item.setTotalPrice(Pricing.money(price.total()));
+        item.setProfit(Pricing.money(price.profit()));
+        sale.getItems().add(item);
+
+        // Batches hold whole units: a fractional (loose) quantity uses up the next whole unit.
+        deductions.add(new BatchDeduction(batch, quantity.setScale(0, RoundingMode.UP).intValue()));
+    }
+
+    private static BigDecimal unitPrice(CartItem cart) {
+        return cart.getUnitPrice() != null ? cart.getUnitPrice() : cart.getProduct().getSellingPrice();
+    }
+
+    private static BigDecimal gstPercent(CartItem cart) {
+        BigDecimal gstPct = cart.getGstPercent() != null ? cart.getGstPercent() : cart.getProduct().getGstPercent();
+        return gstPct != null ? gstPct : BigDecimal.ZERO;
+    }
+
+    private static Pricing.Line priceLine(CartItem cart, BigDecimal unitPrice, BigDecimal gstPct, BigDecimal quantity) {
+        return Pricing.line(Pricing.paise(unitPrice), Pricing.hundredths(gstPct), Pricing.milli(quantity),
+            Pricing.paise(cart.getProduct().getCostPrice()));
+    }
+
+    /**
+     * Price {@code lines} as a checkout would, without selling anything; throws {@link CartValidationException}
+     * like {@link #checkout}. Each line is priced per batch slice it would be taken from, as checkout prices its
+     * sale items, so the totals match the invoice. A quote line's GST and total are the sums of its slices'.
+     */
+    @Transactional(readOnly = true)
+    public Quote quote(List<CheckoutLine> lines) {
+        List<CartItem> cart = prepareCart(lines);
+        List<BatchAllocator.LinePlan> plans = batchAllocator.plan(cart);
+        Pricing.Totals totals = new Pricing.Totals();
+        List<Quote.Line> quoted = new ArrayList<>(cart.size());
+        for (int i = 0; i < cart.size(); i++) {
+            CartItem item = cart.get(i);
+            BatchAllocator.LinePlan plan = plans.get(i);
+            BigDecimal unitPrice = unitPrice(item);
+            BigDecimal gstPct = gstPercent(item);
+            List<BigDecimal> slices = new ArrayList<>(plan.takes().size() + 1);
+            for (BatchAllocator.Take take : plan.takes()) slices.add(take.quantity());
+            if (plan.shortfall().signum() > 0) slices.add(plan.shortfall());
+            long gst = 0;
+            long total = 0;
+            for (BigDecimal quantity : slices) {
+                Pricing.Line price = priceLine(item, unitPrice, gstPct, quantity);
+                totals.add(price);
+                gst = Math.addExact(gst, price.gst());
+                total = Math.addExact(total, price.total());
+            }
+            quoted.add(new Quote.Line(item.getProduct().getId(), item.getProduct().getName(), item.getQuantity(),
+                unitPrice, gstPct, Pricing.money(gst), Pricing.money(total)));
+        }
+        return new Quote(quoted, Pricing.money(totals.total()), Pricing.money(totals.gst()));
+    }
+
+    /** Priced cart before checkout (see {@link #quote}). */
+    public record Quote(List<Line> items, BigDecimal totalAmount, BigDecimal totalGst) {
+
+        public record Line(Long productId, String productName, BigDecimal quantity, BigDecimal unitPrice,
+                           BigDecimal gstPercent, BigDecimal gstAmount, BigDecimal totalPrice) {}
+    }
+
     private record BatchDeduction(Batch batch, int qty) {}
 
     @Transactional(readOnly = true)
@@ -126,34 +322,33 @@ public class SaleService {
         return saleRepository.findById(id);
     }
 
-    /** Load sale with items for PDF/report (initializes lazy collection in same transaction). */
+    /** Load sale with items, their products and the cashier in one query (invoice view). */
     @Transactional(readOnly = true)
     public Optional<Sale> findByIdWithItems(Long id) {
-        return saleRepository.findById(id).map(sale -> {
-            sale.getItems().size();
-            return sale;
-        });
+        return saleRepository.findWithItemsById(id);
     }
 
     @Transactional(readOnly = true)
     public BigDecimal totalSalesToday() {
-        return saleRepository.totalSalesByDate(LocalDate.now());
+        LocalDate today = LocalDate.now();
+        return salesRollupService.revenueBetween(today, today);
     }
 
     @Transactional(readOnly = true)
     public BigDecimal monthlyRevenue() {
-        LocalDateTime start = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-        LocalDateTime end = LocalDateTime.now();
-        return saleRepository.totalSalesBetween(start, end);
+        LocalDate today = LocalDate.now();
+        return salesRollupService.revenueBetween(today.withDayOfMonth(1), today);
     }
 
     @Transactional(readOnly = true)
     public BigDecimal totalProfit() {
-        LocalDateTime start = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-        LocalDateTime end = LocalDateTime.now();
-        return saleRepository.totalProfitBetween(start, end);
+        LocalDate today = LocalDate.now();
+        return salesRollupService.profitBetween(today.withDayOfMonth(1), today);
     }
 
+    /** One requested cart line: overrides are optional (null = product's selling price / GST). */
+    public record CheckoutLine(Long productId, BigDecimal quantity, BigDecimal unitPrice, BigDecimal gstPercent) {}
+
     public static class CartItem {
         private Product product;
         private BigDecimal quantity;
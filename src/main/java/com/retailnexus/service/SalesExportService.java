@@ -0,0 +1,146 @@
+package com.retailnexus.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailnexus.entity.Sale;
+import com.retailnexus.repository.SaleExportRow;
+import com.retailnexus.repository.SaleItemExportRow;
+import com.retailnexus.repository.SaleItemRepository;
+import com.retailnexus.repository.SaleRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streams sales and sale lines as CSV or NDJSON. Rows are read through a forward-only {@code Stream} query of
+ * DTO projections (never managed entities, so the persistence context stays empty) and written to the output
+ * as they arrive; memory use does not depend on the size of the date range. Both formats use the same
+ * snake_case field names: the CSV header row and the NDJSON object keys come from one column list.
+ */
+@Service
+public class SalesExportService {
+
+    private static final List<String> SALE_COLUMNS = List.of(
+        "sale_id", "sale_date", "payment_method", "cashier", "total_amount", "total_gst", "total_profit");
+    private static final List<String> ITEM_COLUMNS = List.of(
+        "sale_id", "sale_date", "payment_method", "product_id", "product_name", "category", "batch_number",
+        "quantity", "unit_price", "gst_percent", "gst_amount", "total_price", "profit");
+
+    private final SaleRepository saleRepository;
+    private final SaleItemRepository saleItemRepository;
+    private final ObjectMapper objectMapper;
+
+    public SalesExportService(SaleRepository saleRepository, SaleItemRepository saleItemRepository,
+                              ObjectMapper objectMapper) {
+        this.saleRepository = saleRepository;
+        this.saleItemRepository = saleItemRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public String getMediaType() { return mediaType; }
+        public String getExtension() { return extension; }
+
+        public static Format from(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /** Inclusive date range plus optional category and payment-method filters (null or blank = any). */
+    public record Filter(LocalDate from, LocalDate to, String category, Sale.PaymentMethod paymentMethod) {
+        String categoryOrNull() {
+            return category != null && !category.isBlank() ? category : null;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportSales(Filter filter, Format format, OutputStream out) throws IOException {
+        try (Stream<SaleExportRow> rows = saleRepository.streamForExport(filter.from().atStartOfDay(),
+                filter.to().plusDays(1).atStartOfDay(), filter.paymentMethod(), filter.categoryOrNull())) {
+            write(rows, format, SALE_COLUMNS, r -> new Object[] { r.saleId(), r.saleDate(), r.paymentMethod(),
+                r.cashier(), r.totalAmount(), r.totalGst(), r.totalProfit() }, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportItems(Filter filter, Format format, OutputStream out) throws IOException {
+        try (Stream<SaleItemExportRow> rows = saleItemRepository.streamForExport(filter.from().atStartOfDay(),
+                filter.to().plusDays(1).atStartOfDay(), filter.paymentMethod(), filter.categoryOrNull())) {
+            write(rows, format, ITEM_COLUMNS, r -> new Object[] { r.saleId(), r.saleDate(), r.paymentMethod(),
+                r.productId(), r.productName(), r.category(), r.batchNumber(), r.quantity(), r.unitPrice(),
+                r.gstPercent(), r.gstAmount(), r.totalPrice(), r.profit() }, out);
+        }
+    }
+
+    private <T> void write(Stream<T> rows, Format format, List<String> columns, Function<T, Object[]> values,
+                           OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV) {
+            writeCsvLine(writer, columns.toArray());
+            Iterator<T> it = rows.iterator();
+            while (it.hasNext()) {
+                writeCsvLine(writer, values.apply(it.next()));
+            }
+            writer.flush();
+            return;
+        }
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(writer)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET); // the caller owns the response stream
+            json.setRootValueSeparator(null);
+            Iterator<T> it = rows.iterator();
+            while (it.hasNext()) {
+                writeJsonLine(json, columns, values.apply(it.next()));
+            }
+        }
+    }
+
+    private static void writeJsonLine(JsonGenerator json, List<String> columns, Object[] values) throws IOException {
+        json.writeStartObject();
+        for (int i = 0; i < values.length; i++) {
+            json.writeFieldName(columns.get(i));
+            json.writeObject(values[i]);
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+            Object v = values[i];
+            if (v == null) continue;
+            String s = v instanceof Enum<?> e ? e.name() : v.toString();
+            if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(s.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(s);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
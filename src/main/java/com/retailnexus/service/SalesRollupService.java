@@ -0,0 +1,216 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.DailySalesSummary;
+import com.retailnexus.entity.ProductDailySales;
+import com.retailnexus.entity.Sale;
+import com.retailnexus.entity.SaleItem;
+import com.retailnexus.repository.CategorySalesRow;
+import com.retailnexus.repository.DailySalesSummaryRepository;
+import com.retailnexus.repository.MonthlySalesRow;
+import com.retailnexus.repository.ProductDailySalesRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintains daily_sales_summary and product_daily_sales inside the checkout transaction, so dashboard, report
+ * and restock queries scan one row per day (or per product-day) instead of every sale. A day row is shared by
+ * every till, so its increment is deferred to just before commit: its row lock is then held only for the
+ * commit itself, not for the rest of the sale.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private final DailySalesSummaryRepository dailyRepository;
+    private final ProductDailySalesRepository productDailyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+
+    public SalesRollupService(DailySalesSummaryRepository dailyRepository,
+                              ProductDailySalesRepository productDailyRepository,
+                              JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.dailyRepository = dailyRepository;
+        this.productDailyRepository = productDailyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Add a saved sale to the rollups. Must run in the sale's transaction, with the product locks of
+     * SaleService held: product-day rows are created in that transaction and the locks keep two checkouts
+     * from creating the same row. The day totals of all sales in the transaction are added in beforeCommit,
+     * one UPDATE per day, by the synchronization registered with the transaction's first sale.
+     */
+    @Transactional
+    public void recordSale(Sale sale) {
+        LocalDate date = sale.getSaleDate().toLocalDate();
+        pendingDays().computeIfAbsent(date, d -> new DayTotals()).add(sale);
+
+        Map<Long, ProductDailySales> byProduct = new LinkedHashMap<>();
+        for (SaleItem item : sale.getItems()) {
+            ProductDailySales row = byProduct.computeIfAbsent(item.getProduct().getId(), id -> {
+                ProductDailySales r = new ProductDailySales();
+                r.setProductId(id);
+                r.setSalesDate(date);
+                return r;
+            });
+            row.setQuantity(row.getQuantity().add(item.getQuantity().setScale(3, RoundingMode.HALF_UP)));
+            row.setRevenue(row.getRevenue().add(money(item.getTotalPrice())));
+            row.setProfit(row.getProfit().add(money(item.getProfit())));
+        }
+        for (ProductDailySales row : byProduct.values()) {
+            int updated = productDailyRepository.addSale(row.getProductId(), date, row.getQuantity(), row.getRevenue(), row.getProfit());
+            if (updated == 0) productDailyRepository.saveAndFlush(row); // the next sale's addSale does not flush
+        }
+    }
+
+    /** Day totals recorded by the current transaction, added to daily_sales_summary just before it commits. */
+    @SuppressWarnings("unchecked")
+    private Map<LocalDate, DayTotals> pendingDays() {
+        Map<LocalDate, DayTotals> pending = (Map<LocalDate, DayTotals>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<LocalDate, DayTotals> created = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    created.forEach(SalesRollupService.this::addDay);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SalesRollupService.this);
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    private void addDay(LocalDate date, DayTotals day) {
+        if (dailyRepository.addSales(date, day.revenue, day.gst, day.profit, day.sales) == 0) {
+            ensureDay(date);
+            dailyRepository.addSales(date, day.revenue, day.gst, day.profit, day.sales);
+        }
+    }
+
+    /**
+     * Create a day's summary row in its own transaction. The row is shared by every till, so it is created
+     * ahead of time (at startup and just before midnight) rather than by whichever sale comes first.
+     */
+    public void ensureDay(LocalDate date) {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                if (dailyRepository.existsById(date)) return;
+                DailySalesSummary day = new DailySalesSummary();
+                day.setSalesDate(date);
+                dailyRepository.saveAndFlush(day);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Created concurrently by another transaction.
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureToday() {
+        ensureDay(LocalDate.now());
+    }
+
+    @Scheduled(cron = "0 50 23 * * *")
+    public void ensureTomorrow() {
+        ensureDay(LocalDate.now().plusDays(1));
+    }
+
+    public boolean isEmpty() {
+        return dailyRepository.count() == 0;
+    }
+
+    /** Recompute both rollups from sales and sale_items (backfill). Run while no sales are being recorded. */
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.update("DELETE FROM product_daily_sales");
+        jdbcTemplate.update("DELETE FROM daily_sales_summary");
+        int days = jdbcTemplate.update(
+            "INSERT INTO daily_sales_summary (sales_date, revenue, gst, profit, sale_count) " +
+            "SELECT CAST(s.sale_date AS DATE), SUM(s.total_amount), SUM(s.total_gst), SUM(s.total_profit), COUNT(*) " +
+            "FROM sales s GROUP BY CAST(s.sale_date AS DATE)");
+        int productDays = jdbcTemplate.update(
+            "INSERT INTO product_daily_sales (product_id, sales_date, quantity, revenue, profit) " +
+            "SELECT si.product_id, CAST(s.sale_date AS DATE), SUM(si.quantity), SUM(si.total_price), SUM(si.profit) " +
+            "FROM sale_items si JOIN sales s ON s.id = si.sale_id GROUP BY si.product_id, CAST(s.sale_date AS DATE)");
+        log.info("Rebuilt sales rollups: {} days, {} product-days", days, productDays);
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal revenueBetween(LocalDate from, LocalDate to) {
+        return dailyRepository.totalRevenueBetween(from, to);
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal profitBetween(LocalDate from, LocalDate to) {
+        return dailyRepository.totalProfitBetween(from, to);
+    }
+
+    /** Rows of [Product, total quantity] for products sold on or after {@code since}. */
+    @Transactional(readOnly = true)
+    public List<Object[]> salesByProductSince(LocalDate since) {
+        return productDailyRepository.findSalesByProductSince(since);
+    }
+
+    @Transactional(readOnly = true)
+    public Set<Long> productIdsSoldSince(LocalDate since) {
+        return new HashSet<>(productDailyRepository.findProductIdsSoldSince(since));
+    }
+
+    @Transactional(readOnly = true)
+    public List<CategorySalesRow> totalsByCategorySince(LocalDate since) {
+        return productDailyRepository.totalsByCategorySince(since);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MonthlySalesRow> revenueByMonthSince(LocalDate from) {
+        return dailyRepository.revenueByMonthSince(from);
+    }
+
+    private static final class DayTotals {
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private BigDecimal gst = BigDecimal.ZERO;
+        private BigDecimal profit = BigDecimal.ZERO;
+        private int sales;
+
+        void add(Sale sale) {
+            revenue = revenue.add(money(sale.getTotalAmount()));
+            gst = gst.add(money(sale.getTotalGst()));
+            profit = profit.add(money(sale.getTotalProfit()));
+            sales++;
+        }
+    }
+
+    /** Sale amounts are stored at scale 2; add the stored value so rollups match SUM() over the sales table. */
+    private static BigDecimal money(BigDecimal value) {
+        return value != null ? value.setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+    }
+}
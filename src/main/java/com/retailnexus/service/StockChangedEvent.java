@@ -0,0 +1,5 @@
+package com.retailnexus.service;
+
+/** Published by {@link BatchService} for every batch quantity change; listeners should react after commit. */
+public record StockChangedEvent(Long productId) {
+}
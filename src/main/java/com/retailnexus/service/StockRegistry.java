@@ -0,0 +1,140 @@
+package com.retailnexus.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory total stock per product (same figure as {@code sumQuantityByProductAll}), one atomic counter each.
+ * Loaded once the application is ready and moved by BatchService after each stock mutation commits, so
+ * billing and inventory pages read stock without touching the database. A periodic pass re-reads the
+ * batches table and corrects any drift.
+ */
+@Service
+public class StockRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(StockRegistry.class);
+
+    private final StockSnapshotService stockSnapshotService;
+    private final ConcurrentHashMap<Long, AtomicInteger> counters = new ConcurrentHashMap<>();
+    /** Bumped on every applied delta; lets reconciliation detect mutations that raced with its read. */
+    private final AtomicLong mutations = new AtomicLong();
+    /** Transactions between beforeCommit and afterCompletion whose delta is not applied yet. */
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile long lastDriftCount;
+
+    public StockRegistry(StockSnapshotService stockSnapshotService) {
+        this.stockSnapshotService = stockSnapshotService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        StockSnapshot snapshot = stockSnapshotService.totalStock();
+        counters.clear();
+        snapshot.asMap().forEach((id, qty) -> counters.put(id, new AtomicInteger(qty)));
+        log.info("Stock registry loaded for {} products", snapshot.size());
+    }
+
+    public int get(long productId) {
+        AtomicInteger counter = counters.get(productId);
+        return counter != null ? counter.get() : 0;
+    }
+
+    /** Copy of all counters for Thymeleaf models; products without batches are absent (treat as 0). */
+    public Map<Long, Integer> asMap() {
+        Map<Long, Integer> map = new HashMap<>(counters.size() * 2);
+        counters.forEach((id, counter) -> map.put(id, counter.get()));
+        return map;
+    }
+
+    /** Apply a stock change once the current transaction commits; applied immediately if there is none. */
+    public void applyAfterCommit(long productId, int delta) {
+        if (delta == 0) return;
+        afterCommit(() -> apply(productId, delta));
+    }
+
+    /** Drop a deleted product's counter once the current transaction commits; immediately if there is none. */
+    public void removeAfterCommit(long productId) {
+        afterCommit(() -> {
+            counters.remove(productId);
+            mutations.incrementAndGet();
+        });
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean counted;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                inFlight.incrementAndGet();
+                counted = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) change.run();
+                if (counted) inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    private void apply(long productId, int delta) {
+        counters.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(delta);
+        mutations.incrementAndGet();
+    }
+
+    /**
+     * Compare counters with the batches table and log any drift. Counters are only corrected when no
+     * mutation was applied during the read; otherwise the next pass picks it up.
+     */
+    @Scheduled(initialDelayString = "${retailnexus.stock.reconcile-interval:PT5M}",
+               fixedDelayString = "${retailnexus.stock.reconcile-interval:PT5M}")
+    public void reconcile() {
+        long before = mutations.get();
+        boolean raced = inFlight.get() > 0;
+        Map<Long, Integer> actual = stockSnapshotService.totalStock().asMap();
+        raced = raced || inFlight.get() > 0 || mutations.get() != before;
+
+        Set<Long> ids = new HashSet<>(actual.keySet());
+        ids.addAll(counters.keySet());
+        long drift = 0;
+        for (Long id : ids) {
+            int expected = actual.getOrDefault(id, 0);
+            int cached = get(id);
+            if (cached == expected) continue;
+            drift++;
+            log.warn("Stock drift for product {}: registry={}, batches={}", id, cached, expected);
+            if (!raced) {
+                counters.computeIfAbsent(id, k -> new AtomicInteger()).set(expected);
+            }
+        }
+        lastDriftCount = drift;
+        if (drift > 0) {
+            log.warn("Stock reconciliation found {} drifted products{}", drift,
+                raced ? " (not corrected: stock changed during the check)" : " (corrected)");
+        }
+    }
+
+    /** Number of products that drifted in the last reconciliation pass. */
+    public long getLastDriftCount() {
+        return lastDriftCount;
+    }
+}
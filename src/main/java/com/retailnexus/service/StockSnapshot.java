@@ -0,0 +1,63 @@
+package com.retailnexus.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable product id -> stock lookup backed by sorted primitive arrays.
+ * Products without batches report 0.
+ */
+public final class StockSnapshot {
+
+    private static final StockSnapshot EMPTY = new StockSnapshot(new long[0], new int[0]);
+
+    private final long[] productIds;
+    private final int[] stock;
+
+    private StockSnapshot(long[] productIds, int[] stock) {
+        this.productIds = productIds;
+        this.stock = stock;
+    }
+
+    public static StockSnapshot empty() {
+        return EMPTY;
+    }
+
+    /** Build from GROUP BY rows of [productId, SUM(quantity)]. */
+    static StockSnapshot fromRows(List<Object[]> rows) {
+        long[][] pairs = new long[rows.size()][];
+        for (int i = 0; i < pairs.length; i++) {
+            Object[] row = rows.get(i);
+            long qty = row[1] != null ? ((Number) row[1]).longValue() : 0L;
+            pairs[i] = new long[] { ((Number) row[0]).longValue(), qty };
+        }
+        Arrays.sort(pairs, (a, b) -> Long.compare(a[0], b[0]));
+        long[] ids = new long[pairs.length];
+        int[] qtys = new int[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            ids[i] = pairs[i][0];
+            qtys[i] = (int) pairs[i][1];
+        }
+        return new StockSnapshot(ids, qtys);
+    }
+
+    public int get(long productId) {
+        int i = Arrays.binarySearch(productIds, productId);
+        return i >= 0 ? stock[i] : 0;
+    }
+
+    public int size() {
+        return productIds.length;
+    }
+
+    /** Boxed copy for Thymeleaf models (e.g. {@code stockByProduct[p.id]}). */
+    public Map<Long, Integer> asMap() {
+        Map<Long, Integer> map = new HashMap<>(productIds.length * 2);
+        for (int i = 0; i < productIds.length; i++) {
+            map.put(productIds[i], stock[i]);
+        }
+        return map;
+    }
+}
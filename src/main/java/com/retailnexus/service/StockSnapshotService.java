@@ -0,0 +1,30 @@
+package com.retailnexus.service;
+
+import com.retailnexus.repository.BatchRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Stock for every product in a single GROUP BY over batches, instead of one SUM query per product.
+ */
+@Service
+public class StockSnapshotService {
+
+    private final BatchRepository batchRepository;
+
+    public StockSnapshotService(BatchRepository batchRepository) {
+        this.batchRepository = batchRepository;
+    }
+
+    /** Sum of positive batch quantities per product (oversold batches are not counted). */
+    @Transactional(readOnly = true)
+    public StockSnapshot availableStock() {
+        return StockSnapshot.fromRows(batchRepository.sumQuantityGroupedByProduct());
+    }
+
+    /** Sum of all batch quantities per product, including oversold batches (same as {@code sumQuantityByProductAll}). */
+    @Transactional(readOnly = true)
+    public StockSnapshot totalStock() {
+        return StockSnapshot.fromRows(batchRepository.sumQuantityAllGroupedByProduct());
+    }
+}
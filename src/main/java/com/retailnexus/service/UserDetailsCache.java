@@ -0,0 +1,50 @@
+package com.retailnexus.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.retailnexus.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Login-time cache of users for the authentication provider, so repeat logins (shift change, several tills)
+ * skip the user query. Bounded and expiring; {@link #removeUserFromCache} must be called when a user is changed.
+ * If a cached password does not match, Spring Security reloads the user from the database before failing.
+ * <p>
+ * Entries are stored as plain values and a fresh principal is built per lookup, because the principal handed
+ * out is later stripped of its password (credential erasure after authentication).
+ */
+@Service
+public class UserDetailsCache implements UserCache {
+
+    private record Entry(Long userId, String username, String password, User.Role role) {}
+
+    private final Cache<String, Entry> cache;
+
+    public UserDetailsCache(@Value("${retailnexus.security.user-cache.max-size:500}") long maxSize,
+                            @Value("${retailnexus.security.user-cache.ttl:PT15M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        Entry e = cache.getIfPresent(username);
+        return e != null ? new AuthenticatedUser(e.userId(), e.username(), e.password(), e.role()) : null;
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        if (user instanceof AuthenticatedUser u && u.getPassword() != null) {
+            cache.put(u.getUsername(), new Entry(u.getUserId(), u.getUsername(), u.getPassword(), u.getRole()));
+        }
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        cache.invalidate(username);
+    }
+}
@@ -0,0 +1,82 @@
+package com.retailnexus.controller;
+
+import com.retailnexus.entity.Product;
+import com.retailnexus.entity.Sale;
+import com.retailnexus.service.SaleService;
+import com.retailnexus.support.TestCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.retailnexus.support.SqlStatementAssertions.assertMaxStatements;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets for the hot pages, at the counts measured when SqlStats was added. Each page is requested
+ * once first so the budgets hold for warm caches, which is what a till sees all day.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class PageStatementBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserDetailsService userDetailsService;
+    @Autowired
+    private SaleService saleService;
+    @Autowired
+    private TestCatalog catalog;
+
+    private UserDetails admin;
+
+    @BeforeEach
+    void signIn() {
+        admin = userDetailsService.loadUserByUsername("admin");
+    }
+
+    @Test
+    void dashboardRunsNoStatementsWhenWarm() throws Exception {
+        assertWarmPageWithin(0, "/dashboard");
+    }
+
+    @Test
+    void dailyReportRunsTwoStatements() throws Exception {
+        assertWarmPageWithin(2, "/reports/daily");
+    }
+
+    @Test
+    void monthlyReportRunsOneStatement() throws Exception {
+        assertWarmPageWithin(1, "/reports/monthly");
+    }
+
+    @Test
+    void invoiceRunsOneStatement() throws Exception {
+        Product product = catalog.product();
+        catalog.batch(product, 10, LocalDate.now().plusMonths(6));
+        Sale sale = saleService.checkout(
+            List.of(new SaleService.CheckoutLine(product.getId(), BigDecimal.ONE, null, null)), null, Sale.PaymentMethod.CASH);
+
+        assertWarmPageWithin(1, "/billing/invoice/" + sale.getId());
+    }
+
+    private void assertWarmPageWithin(int maxStatements, String url) throws Exception {
+        mockMvc.perform(get(url).with(user(admin))).andExpect(status().isOk());
+        assertMaxStatements(maxStatements, () -> mockMvc.perform(get(url).with(user(admin))).andExpect(status().isOk()));
+    }
+}
@@ -0,0 +1,52 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.Batch;
+import com.retailnexus.entity.Product;
+import com.retailnexus.support.TestCatalog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class BatchServiceTest {
+
+    @Autowired
+    private BatchService batchService;
+    @Autowired
+    private StockRegistry stockRegistry;
+    @Autowired
+    private TestCatalog catalog;
+
+    @Test
+    void savingAnExistingBatchIsRejected() {
+        Product product = catalog.product();
+        Batch batch = catalog.batch(product, 10, LocalDate.now().plusMonths(6));
+        batch.setQuantity(12);
+
+        assertThatThrownBy(() -> batchService.save(batch)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catalog.quantity(batch)).isEqualTo(10);
+        assertThat(catalog.ledgerSum(batch)).isEqualTo(10);
+        assertThat(stockRegistry.get(product.getId())).isEqualTo(10);
+    }
+
+    @Test
+    void setBatchQuantityMovesTheCounterByTheDifference() {
+        Product product = catalog.product();
+        Batch batch = catalog.batch(product, 10, LocalDate.now().plusMonths(6));
+
+        batchService.setBatchQuantity(batch, 12);
+
+        assertThat(catalog.quantity(batch)).isEqualTo(12);
+        assertThat(stockRegistry.get(product.getId())).isEqualTo(12);
+    }
+}
@@ -0,0 +1,115 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.Batch;
+import com.retailnexus.entity.Product;
+import com.retailnexus.entity.Sale;
+import com.retailnexus.support.TestCatalog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Many tills selling one hot product at once, with and without restocks: every unit sold is deducted exactly once. */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class ConcurrentCheckoutTest {
+
+    private static final int TILLS = 8;
+    private static final int SALES_PER_TILL = 25;
+
+    @Autowired
+    private SaleService saleService;
+    @Autowired
+    private BatchService batchService;
+    @Autowired
+    private StockRegistry stockRegistry;
+    @Autowired
+    private TestCatalog catalog;
+
+    @Test
+    void concurrentSalesOfOneProductLoseNoUnits() throws Exception {
+        Product product = catalog.product();
+        Batch batch = catalog.batch(product, 1000, LocalDate.now().plusMonths(6));
+        List<SaleService.CheckoutLine> cart = List.of(new SaleService.CheckoutLine(product.getId(), BigDecimal.ONE, null, null));
+
+        ExecutorService tills = Executors.newFixedThreadPool(TILLS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> runs = new ArrayList<>();
+        try {
+            for (int t = 0; t < TILLS; t++) {
+                runs.add(tills.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < SALES_PER_TILL; i++) {
+                        saleService.checkout(cart, null, Sale.PaymentMethod.CASH);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> run : runs) {
+                run.get(2, TimeUnit.MINUTES); // rethrows a failed sale
+            }
+        } finally {
+            tills.shutdownNow();
+        }
+
+        int sold = TILLS * SALES_PER_TILL;
+        assertThat(catalog.quantity(batch)).isEqualTo(1000 - sold);
+        assertThat(catalog.ledgerSum(batch)).isEqualTo(1000 - sold);
+        assertThat(stockRegistry.asMap().get(product.getId())).isEqualTo(1000 - sold);
+    }
+
+    @Test
+    void restockDuringCheckoutsKeepsTheirDeductions() throws Exception {
+        Product product = catalog.product();
+        Batch batch = catalog.batch(product, 1000, LocalDate.now().plusMonths(6));
+        List<SaleService.CheckoutLine> cart = List.of(new SaleService.CheckoutLine(product.getId(), BigDecimal.ONE, null, null));
+        int restocks = 50;
+
+        ExecutorService tills = Executors.newFixedThreadPool(TILLS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> runs = new ArrayList<>();
+        try {
+            for (int t = 0; t < TILLS; t++) {
+                runs.add(tills.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < SALES_PER_TILL; i++) {
+                        saleService.checkout(cart, null, Sale.PaymentMethod.CASH);
+                    }
+                    return null;
+                }));
+            }
+            runs.add(tills.submit(() -> {
+                start.await();
+                for (int i = 0; i < restocks; i++) {
+                    batchService.addProductStock(product, 1); // read-then-set of the product's total stock
+                }
+                return null;
+            }));
+            start.countDown();
+            for (Future<?> run : runs) {
+                run.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            tills.shutdownNow();
+        }
+
+        int expected = 1000 - TILLS * SALES_PER_TILL + restocks;
+        assertThat(catalog.quantity(batch)).isEqualTo(expected);
+        assertThat(stockRegistry.asMap().get(product.getId())).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,110 @@
+package com.retailnexus.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** Widget timeouts, with the widget queries stubbed so their run times are known. */
+class DashboardSnapshotServiceTest {
+
+    private static final Duration WIDGET_TIMEOUT = Duration.ofMillis(500);
+
+    private final DashboardService dashboardService = mock(DashboardService.class);
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+    private final List<Scheduled> scheduled = new ArrayList<>();
+    private DashboardSnapshotService snapshots;
+
+    @BeforeEach
+    void createService() {
+        when(taskScheduler.schedule(any(Runnable.class), any(Instant.class))).thenAnswer(call -> {
+            scheduled.add(new Scheduled(call.getArgument(0), call.getArgument(1)));
+            return null;
+        });
+        snapshots = new DashboardSnapshotService(dashboardService, mock(RestockSuggestionService.class), taskScheduler,
+            new SimpleMeterRegistry(), Duration.ofSeconds(2), Duration.ofSeconds(30), Duration.ofMinutes(5),
+            WIDGET_TIMEOUT, 2, false);
+    }
+
+    @AfterEach
+    void shutdown() {
+        snapshots.shutdown();
+    }
+
+    @Test
+    void aQueuedWidgetGetsItsFullTimeoutOnceItRuns() {
+        // Both threads are busy for 400 ms, so totalProfit starts then and takes 300 ms: 700 ms after submit,
+        // but well within its own 500 ms.
+        when(dashboardService.totalSalesToday()).thenAnswer(call -> after(400, BigDecimal.ONE));
+        when(dashboardService.monthlyRevenue()).thenAnswer(call -> after(400, BigDecimal.TEN));
+        when(dashboardService.totalProfit()).thenAnswer(call -> after(300, new BigDecimal("7.50")));
+
+        DashboardSnapshot snapshot = snapshots.current();
+
+        assertThat(snapshot.getTotalProfit()).isEqualByComparingTo("7.50");
+        assertThat(snapshots.getWidgetFailures()).isZero();
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void aRunningWidgetPastItsTimeoutShowsItsPlaceholder() {
+        when(dashboardService.totalProfit()).thenAnswer(call -> after(2_000, BigDecimal.ONE));
+
+        DashboardSnapshot snapshot = snapshots.current();
+
+        assertThat(snapshot.getTotalProfit()).isNull();
+        assertThat(snapshots.getWidgetFailures()).isEqualTo(1);
+    }
+
+    @Test
+    void aSectionThatKeepsFailingIsRetriedWithBackoff() {
+        when(dashboardService.totalProfit()).thenThrow(new IllegalStateException("query failed"));
+
+        snapshots.current();
+        assertThat(nextDelay()).isEqualTo(Duration.ofSeconds(2));
+        failAgain();
+        assertThat(nextDelay()).isEqualTo(Duration.ofSeconds(4));
+        failAgain();
+        assertThat(nextDelay()).isEqualTo(Duration.ofSeconds(8));
+
+        doReturn(BigDecimal.ONE).when(dashboardService).totalProfit();
+        failAgain();
+        assertThat(scheduled).isEmpty();
+        assertThat(snapshots.current().getTotalProfit()).isEqualByComparingTo("1");
+    }
+
+    /** Runs the pending backoff retry, then the debounced refresh it schedules. */
+    private void failAgain() {
+        scheduled.remove(0).task().run();
+        scheduled.remove(0).task().run();
+    }
+
+    /** Delay of the only scheduled task, rounded to seconds. */
+    private Duration nextDelay() {
+        assertThat(scheduled).hasSize(1);
+        return Duration.ofSeconds(Math.round(Duration.between(Instant.now(), scheduled.get(0).at()).toMillis() / 1000.0));
+    }
+
+    private record Scheduled(Runnable task, Instant at) {
+    }
+
+    private static <T> T after(long millis, T value) throws InterruptedException {
+        Thread.sleep(millis);
+        return value;
+    }
+}
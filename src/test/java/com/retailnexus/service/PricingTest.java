@@ -0,0 +1,111 @@
+package com.retailnexus.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link Pricing} against the BigDecimal arithmetic it replaced: line amounts from the old {@code priceLine}, sale
+ * totals as the sum of unrounded line amounts, and both rounded half-up to paise as the DECIMAL(_, 2) columns
+ * stored them.
+ */
+class PricingTest {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Test
+    void halfPaisaGstRoundsUp() {
+        assertSameAsBigDecimal(line("1.25", "18", "1", "1.00"));  // GST 0.225
+        assertSameAsBigDecimal(line("2.50", "5", "1", "2.00"));   // GST 0.125
+        assertSameAsBigDecimal(line("0.99", "12.5", "3", "0.50")); // GST 0.37125
+        assertThat(Pricing.money(price(line("1.25", "18", "1", "1.00")).gst())).isEqualTo(new BigDecimal("0.23"));
+    }
+
+    @Test
+    void fractionalKilogramQuantities() {
+        assertSameAsBigDecimal(line("89.99", "5", "1.235", "70.10"));
+        assertSameAsBigDecimal(line("42.50", "0", "0.005", "38.00"));
+        assertSameAsBigDecimal(line("649.00", "12", "2.750", "512.35"));
+    }
+
+    @Test
+    void aLineSplitAcrossBatchesIsPricedPerSlice() {
+        // 2.75 kg from two batches, as checkout and quote price it: one line per slice.
+        assertSameAsBigDecimal(line("89.99", "5", "2", "70.10"), line("89.99", "5", "0.75", "70.10"));
+        assertSameAsBigDecimal(line("1.25", "18", "1", "1.00"), line("1.25", "18", "1", "1.00"),
+            line("1.25", "18", "1", "1.00"));
+    }
+
+    @Test
+    void negativeProfitRoundsAwayFromZero() {
+        assertSameAsBigDecimal(line("10.00", "18", "3", "12.35"));
+        assertSameAsBigDecimal(line("10.01", "5", "0.5", "10.02")); // profit -0.005
+        assertThat(Pricing.money(price(line("10.01", "5", "0.5", "10.02")).profit())).isEqualTo(new BigDecimal("-0.01"));
+    }
+
+    @Test
+    void randomSalesMatch() {
+        Random random = new Random(42);
+        String[] rates = {"0", "5", "12", "18", "28", "12.5"};
+        for (int sale = 0; sale < 20_000; sale++) {
+            List<String[]> lines = new ArrayList<>();
+            for (int i = 1 + random.nextInt(4); i > 0; i--) {
+                BigDecimal price = BigDecimal.valueOf(1 + random.nextInt(200_000), 2);
+                BigDecimal cost = BigDecimal.valueOf(random.nextInt(250_000), 2);
+                BigDecimal quantity = random.nextBoolean() ? BigDecimal.valueOf(1 + random.nextInt(20))
+                    : BigDecimal.valueOf(1 + random.nextInt(10_000), 3);
+                lines.add(line(price.toPlainString(), rates[random.nextInt(rates.length)], quantity.toPlainString(),
+                    cost.toPlainString()));
+            }
+            assertSameAsBigDecimal(lines.toArray(String[][]::new));
+        }
+    }
+
+    /** Prices {@code lines} as one sale both ways and compares every stored amount. */
+    private static void assertSameAsBigDecimal(String[]... lines) {
+        Pricing.Totals totals = new Pricing.Totals();
+        BigDecimal oldTotal = BigDecimal.ZERO;
+        BigDecimal oldGst = BigDecimal.ZERO;
+        BigDecimal oldProfit = BigDecimal.ZERO;
+        for (String[] line : lines) {
+            Pricing.Line price = price(line);
+            totals.add(price);
+
+            BigDecimal subtotal = new BigDecimal(line[0]).multiply(new BigDecimal(line[2]));
+            BigDecimal gst = subtotal.multiply(new BigDecimal(line[1])).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+            BigDecimal total = subtotal.add(gst);
+            BigDecimal profit = total.subtract(gst).subtract(new BigDecimal(line[3]).multiply(new BigDecimal(line[2])));
+
+            String at = String.join(" / ", line);
+            assertThat(Pricing.money(price.gst())).as("gst of %s", at).isEqualTo(gst);
+            assertThat(Pricing.money(price.total())).as("total of %s", at).isEqualTo(stored(total));
+            assertThat(Pricing.money(price.profit())).as("profit of %s", at).isEqualTo(stored(profit));
+            oldTotal = oldTotal.add(total);
+            oldGst = oldGst.add(gst);
+            oldProfit = oldProfit.add(profit);
+        }
+        assertThat(Pricing.money(totals.total())).isEqualTo(stored(oldTotal));
+        assertThat(Pricing.money(totals.gst())).isEqualTo(oldGst);
+        assertThat(Pricing.money(totals.profit())).isEqualTo(stored(oldProfit));
+    }
+
+    /** Unit price, GST %, quantity and unit cost, as entered. */
+    private static String[] line(String unitPrice, String gstPercent, String quantity, String unitCost) {
+        return new String[] {unitPrice, gstPercent, quantity, unitCost};
+    }
+
+    private static Pricing.Line price(String[] line) {
+        return Pricing.line(Pricing.paise(new BigDecimal(line[0])), Pricing.hundredths(new BigDecimal(line[1])),
+            Pricing.milli(new BigDecimal(line[2])), Pricing.paise(new BigDecimal(line[3])));
+    }
+
+    private static BigDecimal stored(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,49 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.Product;
+import com.retailnexus.support.TestCatalog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class ProductServiceTest {
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private StockRegistry stockRegistry;
+    @Autowired
+    private TestCatalog catalog;
+
+    @Test
+    void deletingAProductDropsItsStockCounter() {
+        Product product = catalog.product();
+        stockRegistry.applyAfterCommit(product.getId(), 3); // a counter left behind, e.g. by batches removed in SQL
+
+        productService.deleteById(product.getId());
+
+        assertThat(stockRegistry.asMap()).doesNotContainKey(product.getId());
+    }
+
+    @Test
+    void failedDeleteKeepsTheStockCounter() {
+        Product product = catalog.product();
+        catalog.batch(product, 7, LocalDate.now().plusMonths(6));
+
+        assertThatThrownBy(() -> productService.deleteById(product.getId()))
+            .isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(stockRegistry.get(product.getId())).isEqualTo(7);
+    }
+}
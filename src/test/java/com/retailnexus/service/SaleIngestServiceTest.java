@@ -0,0 +1,101 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.Batch;
+import com.retailnexus.entity.Product;
+import com.retailnexus.entity.Sale;
+import com.retailnexus.repository.UserRepository;
+import com.retailnexus.support.TestCatalog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class SaleIngestServiceTest {
+
+    @Autowired
+    private SaleIngestService ingestService;
+    @Autowired
+    private TestCatalog catalog;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void salesInOneChunkTakeFromTheNextBatchOnceTheFirstIsSold() {
+        Product product = catalog.product();
+        Batch first = catalog.batch(product, 5, LocalDate.now().plusDays(10));
+        Batch second = catalog.batch(product, 100, LocalDate.now().plusDays(60));
+
+        List<SaleIngestService.OfflineSale> sales = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            sales.add(sale(product, 1));
+        }
+        List<SaleIngestService.Result> results = ingestService.ingest(sales, null);
+
+        assertThat(results).extracting(SaleIngestService.Result::status).containsOnly(SaleIngestService.Status.CREATED);
+        assertThat(catalog.quantity(first)).isZero();
+        assertThat(catalog.quantity(second)).isEqualTo(95);
+        assertThat(catalog.ledgerSum(first)).isZero();
+        assertThat(catalog.ledgerSum(second)).isEqualTo(95);
+        // First expiry, first out: the first five sales empty the first batch, the rest take from the second
+        List<Long> batchOfEachSale = jdbc.queryForList(
+            "SELECT i.batch_id FROM sale_items i WHERE i.product_id = ? ORDER BY i.sale_id", Long.class, product.getId());
+        assertThat(batchOfEachSale).containsExactly(first.getId(), first.getId(), first.getId(), first.getId(), first.getId(),
+            second.getId(), second.getId(), second.getId(), second.getId(), second.getId());
+    }
+
+    @Test
+    void aKeyReplayedByItsCashierIsADuplicateAndByAnotherIsRejected() {
+        Product product = catalog.product();
+        Batch batch = catalog.batch(product, 10, LocalDate.now().plusMonths(6));
+        Long cashier = userRepository.findByUsername("cashier").orElseThrow().getId();
+        Long admin = userRepository.findByUsername("admin").orElseThrow().getId();
+        SaleIngestService.OfflineSale sale = sale(product, 1);
+
+        SaleIngestService.Result created = ingestService.ingest(List.of(sale), cashier).get(0);
+        SaleIngestService.Result replayed = ingestService.ingest(List.of(sale), cashier).get(0);
+        SaleIngestService.Result stranger = ingestService.ingest(List.of(sale), admin).get(0);
+
+        assertThat(created.status()).isEqualTo(SaleIngestService.Status.CREATED);
+        assertThat(replayed.status()).isEqualTo(SaleIngestService.Status.DUPLICATE);
+        assertThat(replayed.saleId()).isEqualTo(created.saleId());
+        assertThat(stranger.status()).isEqualTo(SaleIngestService.Status.REJECTED);
+        assertThat(stranger.saleId()).isNull();
+        assertThat(catalog.quantity(batch)).isEqualTo(9);
+    }
+
+    @Test
+    void salesOfAProductWithoutBatchesInOneChunkShareTheBatchCreatedForThem() {
+        Product product = catalog.product();
+
+        List<SaleIngestService.Result> results = ingestService.ingest(List.of(sale(product, 2), sale(product, 3)), null);
+
+        assertThat(results).extracting(SaleIngestService.Result::status).containsOnly(SaleIngestService.Status.CREATED);
+        List<Integer> quantities = jdbc.queryForList("SELECT quantity FROM batches WHERE product_id = ?", Integer.class, product.getId());
+        assertThat(quantities).containsExactly(-5);
+        assertThat(jdbc.queryForObject("SELECT SUM(t.quantity_change) FROM inventory_transactions t JOIN batches b ON b.id = t.batch_id"
+            + " WHERE b.product_id = ?", Integer.class, product.getId())).isEqualTo(-5);
+        assertThat(jdbc.queryForObject("SELECT SUM(quantity) FROM product_daily_sales WHERE product_id = ?", BigDecimal.class,
+            product.getId())).isEqualByComparingTo("5");
+    }
+
+    private static SaleIngestService.OfflineSale sale(Product product, int quantity) {
+        return new SaleIngestService.OfflineSale(UUID.randomUUID().toString(), LocalDateTime.now().minusMinutes(1),
+            Sale.PaymentMethod.CASH, List.of(new SaleService.CheckoutLine(product.getId(), BigDecimal.valueOf(quantity), null, null)));
+    }
+}
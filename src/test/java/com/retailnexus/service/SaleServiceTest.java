@@ -0,0 +1,67 @@
+package com.retailnexus.service;
+
+import com.retailnexus.entity.Product;
+import com.retailnexus.entity.Sale;
+import com.retailnexus.repository.UserRepository;
+import com.retailnexus.support.TestCatalog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class SaleServiceTest {
+
+    @Autowired
+    private SaleService saleService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TestCatalog catalog;
+
+    @Test
+    void quoteOfALineSpanningBatchesMatchesTheCheckout() {
+        Product product = catalog.product();
+        catalog.batch(product, 1, LocalDate.now().plusMonths(1));
+        catalog.batch(product, 5, LocalDate.now().plusMonths(6));
+        // 1.25 at 18% GST is 0.225 GST per unit: 0.23 per one-unit slice, but 0.45 for two units priced whole.
+        List<SaleService.CheckoutLine> lines = List.of(
+            new SaleService.CheckoutLine(product.getId(), new BigDecimal("2"), new BigDecimal("1.25"), new BigDecimal("18")));
+
+        SaleService.Quote quote = saleService.quote(lines);
+        Sale sale = saleService.checkout(lines, null, Sale.PaymentMethod.CASH);
+
+        assertThat(sale.getItems()).hasSize(2);
+        assertThat(quote.totalGst()).isEqualTo(sale.getTotalGst()).isEqualTo(new BigDecimal("0.46"));
+        assertThat(quote.totalAmount()).isEqualTo(sale.getTotalAmount()).isEqualTo(new BigDecimal("2.96"));
+        assertThat(quote.items().get(0).totalPrice()).isEqualTo(new BigDecimal("2.96"));
+    }
+
+    @Test
+    void checkoutInvoiceIsCompleteOutsideTheTransaction() {
+        Product product = catalog.product();
+        catalog.batch(product, 5, LocalDate.now().plusMonths(6));
+        Long cashierId = userRepository.findByUsername("cashier").orElseThrow().getId();
+
+        Invoice invoice = saleService.checkoutInvoice(
+            List.of(new SaleService.CheckoutLine(product.getId(), new BigDecimal("3"), null, null)),
+            cashierId, "cashier", Sale.PaymentMethod.UPI);
+
+        assertThat(invoice.cashier()).isEqualTo("cashier");
+        assertThat(invoice.items()).singleElement().satisfies(line -> {
+            assertThat(line.productName()).isEqualTo(product.getName());
+            assertThat(line.batchNumber()).startsWith("T-");
+            assertThat(line.totalPrice()).isEqualTo(new BigDecimal("30.00"));
+        });
+        assertThat(invoice.totalAmount()).isEqualTo(new BigDecimal("30.00"));
+    }
+}
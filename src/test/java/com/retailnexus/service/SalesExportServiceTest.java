@@ -0,0 +1,60 @@
+package com.retailnexus.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailnexus.entity.Product;
+import com.retailnexus.entity.Sale;
+import com.retailnexus.support.TestCatalog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestCatalog.class)
+class SalesExportServiceTest {
+
+    @Autowired
+    private SalesExportService exportService;
+    @Autowired
+    private SaleService saleService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TestCatalog catalog;
+
+    @Test
+    void ndjsonKeysMatchCsvHeader() throws Exception {
+        Product product = catalog.product();
+        catalog.batch(product, 10, LocalDate.now().plusMonths(6));
+        saleService.checkout(List.of(new SaleService.CheckoutLine(product.getId(), BigDecimal.ONE, null, null)),
+            null, Sale.PaymentMethod.CASH);
+        SalesExportService.Filter today = new SalesExportService.Filter(LocalDate.now(), LocalDate.now(), null, null);
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        exportService.exportItems(today, SalesExportService.Format.CSV, csv);
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        exportService.exportItems(today, SalesExportService.Format.NDJSON, ndjson);
+
+        List<String> header = List.of(csv.toString(StandardCharsets.UTF_8).split("\r\n")[0].split(","));
+        String[] lines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        JsonNode first = objectMapper.readTree(lines[0]);
+        List<String> keys = new ArrayList<>();
+        first.fieldNames().forEachRemaining(keys::add);
+
+        assertThat(keys).containsExactlyElementsOf(header);
+        assertThat(keys).contains("sale_id", "product_name", "unit_price");
+        assertThat(first.get("sale_date").isTextual()).isTrue();
+    }
+}
@@ -0,0 +1,46 @@
+package com.retailnexus.support;
+
+import com.retailnexus.config.SqlStats;
+
+/**
+ * Query-count guards for tests, so an N+1 in a hot page fails the build. Work runs on the calling thread, which
+ * is where MockMvc executes requests:
+ * <pre>
+ * assertMaxStatements(12, () -> mockMvc.perform(get("/dashboard").with(user("admin"))).andExpect(status().isOk()));
+ * </pre>
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {}
+
+    @FunctionalInterface
+    public interface Work {
+        void run() throws Exception;
+    }
+
+    /** Statements, rows and JDBC time of {@code work}. */
+    public static SqlStats.Snapshot measure(Work work) throws Exception {
+        try (SqlStats.Scope scope = SqlStats.open()) {
+            work.run();
+            return scope.snapshot();
+        }
+    }
+
+    /** Run {@code work}; fail if it executed more than {@code max} statements (a JDBC batch counts once). */
+    public static SqlStats.Snapshot assertMaxStatements(int max, Work work) throws Exception {
+        SqlStats.Snapshot stats = measure(work);
+        if (stats.statements() > max) {
+            throw new AssertionError("Expected at most " + max + " SQL statements, got " + stats);
+        }
+        return stats;
+    }
+
+    /** Run {@code work}; fail if it read more than {@code max} result-set rows. */
+    public static SqlStats.Snapshot assertMaxRows(long max, Work work) throws Exception {
+        SqlStats.Snapshot stats = measure(work);
+        if (stats.rows() > max) {
+            throw new AssertionError("Expected at most " + max + " rows read, got " + stats);
+        }
+        return stats;
+    }
+}
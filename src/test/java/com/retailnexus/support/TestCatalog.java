@@ -0,0 +1,66 @@
+package com.retailnexus.support;
+
+import com.retailnexus.entity.Batch;
+import com.retailnexus.entity.Product;
+import com.retailnexus.service.BatchService;
+import com.retailnexus.service.ProductService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Products and batches for tests, created through the services as the UI would, so the stock registry, batch
+ * allocator and inventory ledger see them. Each test makes its own products, so tests sharing the cached
+ * context and its database do not see each other's stock.
+ */
+@Component
+public class TestCatalog {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final ProductService productService;
+    private final BatchService batchService;
+    private final JdbcTemplate jdbc;
+
+    public TestCatalog(ProductService productService, BatchService batchService, JdbcTemplate jdbc) {
+        this.productService = productService;
+        this.batchService = batchService;
+        this.jdbc = jdbc;
+    }
+
+    /** A product sold in whole pieces at 10.00 (cost 8.00, no GST). */
+    public Product product() {
+        Product p = new Product();
+        p.setName("Test Product " + SEQUENCE.incrementAndGet());
+        p.setCategory("Test");
+        p.setCostPrice(new BigDecimal("8.00"));
+        p.setSellingPrice(new BigDecimal("10.00"));
+        p.setGstPercent(BigDecimal.ZERO);
+        p.setUnit(Product.Unit.PIECES);
+        return productService.save(p);
+    }
+
+    /** A new batch of {@code product} with {@code quantity} units expiring {@code expiry}. */
+    public Batch batch(Product product, int quantity, LocalDate expiry) {
+        Batch batch = new Batch();
+        batch.setProduct(product);
+        batch.setBatchNumber("T-" + SEQUENCE.incrementAndGet());
+        batch.setExpiryDate(expiry);
+        batch.setQuantity(quantity);
+        return batchService.save(batch);
+    }
+
+    /** Quantity of the batch as stored. */
+    public int quantity(Batch batch) {
+        return jdbc.queryForObject("SELECT quantity FROM batches WHERE id = ?", Integer.class, batch.getId());
+    }
+
+    /** Sum of the batch's inventory ledger rows. */
+    public int ledgerSum(Batch batch) {
+        return jdbc.queryForObject("SELECT COALESCE(SUM(quantity_change), 0) FROM inventory_transactions WHERE batch_id = ?",
+            Integer.class, batch.getId());
+    }
+}